@@ -0,0 +1,65 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.model.User;
+import com.ahadu.payroll.repository.AttendanceRepository;
+import com.ahadu.payroll.repository.LeaveRequestRepository;
+import com.ahadu.payroll.repository.UserRepository;
+import com.ahadu.payroll.service.AttendanceService;
+import com.ahadu.payroll.service.LiveAttendanceCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Username population for attendance listings ({@code AttendanceService.populateUsernames}),
+ * measured through {@link AttendanceService#getAllAttendanceWithUsernames()} against
+ * in-memory repositories. Each employee has a working week of records, so the distinct-ID
+ * step has duplicates to remove as it does in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttendanceUsernamesBenchmark {
+
+    private static final int DAYS = 5;
+
+    @Param({ "1000", "10000", "100000" })
+    public int employees;
+
+    private AttendanceService attendanceService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Attendance> records = SyntheticData.attendance(employees, DAYS);
+        List<User> users = SyntheticData.employees(employees);
+
+        RepositoryStubs repositories = new RepositoryStubs()
+                .answer("findAll", args -> records)
+                .answer("findAllById", args -> users);
+        attendanceService = new AttendanceService(repositories.stub(AttendanceRepository.class),
+                repositories.stub(UserRepository.class), repositories.stub(LeaveRequestRepository.class),
+                new LiveAttendanceCounters(repositories.stub(AttendanceRepository.class),
+                        repositories.stub(UserRepository.class), repositories.stub(LeaveRequestRepository.class)));
+    }
+
+    @Benchmark
+    public List<Attendance> allAttendanceWithUsernames() {
+        return attendanceService.getAllAttendanceWithUsernames();
+    }
+}
@@ -0,0 +1,81 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.security.JwtUtil;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token parsing and validation in {@link JwtUtil}, the work done by the JWT filter on every
+ * authenticated request. Each invocation takes the next token of a pool holding one token
+ * per employee, so caches see as many distinct tokens as a busy pay day would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int employees;
+
+    private JwtUtil jwtUtil;
+    private String[] usernames;
+    private String[] tokens;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        // The fields are normally injected from jwt.secret and jwt.expirationMs
+        setField("secret", Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS512).getEncoded()));
+        setField("expirationMs", TimeUnit.HOURS.toMillis(1));
+
+        usernames = new String[employees];
+        tokens = new String[employees];
+        for (int i = 0; i < employees; i++) {
+            usernames[i] = "employee" + i;
+            tokens[i] = jwtUtil.generateToken(usernames[i]);
+        }
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(tokens[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        int index = nextIndex();
+        return jwtUtil.validateToken(tokens[index], usernames[index]);
+    }
+
+    private int nextIndex() {
+        int index = next;
+        next = index + 1 == employees ? 0 : index + 1;
+        return index;
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtUtil, value);
+    }
+}
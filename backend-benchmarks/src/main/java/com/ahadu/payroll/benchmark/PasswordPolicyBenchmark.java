@@ -0,0 +1,85 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.repository.RoleRepository;
+import com.ahadu.payroll.repository.UserRepository;
+import com.ahadu.payroll.service.SystemSettingService;
+import com.ahadu.payroll.service.UserProfileServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UserProfileServiceImpl.validatePasswordPolicy}, run for every password change and
+ * admin reset. The method is private, so it is called through a method handle. No policy
+ * settings are stored, so the built-in defaults apply (uppercase, lowercase and a digit,
+ * at least 6 characters).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordPolicyBenchmark {
+
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%";
+
+    @Param({ "1000", "10000", "100000" })
+    public int employees;
+
+    private UserProfileServiceImpl userProfileService;
+    private MethodHandle validatePasswordPolicy;
+    private String[] passwords;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        RepositoryStubs settings = new RepositoryStubs();
+        for (Method method : SystemSettingService.class.getMethods()) {
+            if (method.getReturnType() == Optional.class) {
+                settings.answer(method.getName(), args -> Optional.empty());
+            }
+        }
+        userProfileService = new UserProfileServiceImpl(new RepositoryStubs().stub(UserRepository.class), null,
+                new RepositoryStubs().stub(RoleRepository.class), settings.stub(SystemSettingService.class));
+
+        Method method = UserProfileServiceImpl.class.getDeclaredMethod("validatePasswordPolicy", String.class);
+        method.setAccessible(true);
+        validatePasswordPolicy = MethodHandles.lookup().unreflect(method);
+
+        // Passwords of 8 to 20 characters that satisfy the default policy
+        SplittableRandom random = new SplittableRandom(42);
+        passwords = new String[employees];
+        for (int i = 0; i < employees; i++) {
+            StringBuilder password = new StringBuilder("Aa1");
+            int length = random.nextInt(5, 18);
+            for (int c = 0; c < length; c++) {
+                password.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            passwords[i] = password.toString();
+        }
+    }
+
+    @Benchmark
+    public void validatePasswordPolicy() throws Throwable {
+        String password = passwords[next];
+        next = next + 1 == employees ? 0 : next + 1;
+        validatePasswordPolicy.invokeExact(userProfileService, password);
+    }
+}
@@ -0,0 +1,141 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.model.SalaryComponent;
+import com.ahadu.payroll.model.User;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.repository.LatestPayslipRepository;
+import com.ahadu.payroll.repository.PaycheckRepository;
+import com.ahadu.payroll.repository.PayrollRunRepository;
+import com.ahadu.payroll.repository.PayslipDocumentRepository;
+import com.ahadu.payroll.repository.SalaryComponentRepository;
+import com.ahadu.payroll.repository.UserRepository;
+import com.ahadu.payroll.repository.YearToDateRepository;
+import com.ahadu.payroll.service.LatestPayslipService;
+import com.ahadu.payroll.service.PayrollCalculator;
+import com.ahadu.payroll.service.PayrollService;
+import com.ahadu.payroll.service.PayslipRenderer;
+import com.ahadu.payroll.service.PayslipService;
+import com.ahadu.payroll.service.YearToDateService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Paycheck calculation: the server-side calculation of a whole run with
+ * {@link PayrollCalculator}, and the admin preview in {@link PayrollService} that turns
+ * submitted paycheck details into a DRAFT run.
+ *
+ * The preview runs against in-memory repositories, so the time measured is the service's
+ * own work. The number of repository round trips per preview is reported as a secondary
+ * result, next to the one-findById-per-row lookup the preview used to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayrollCalculationBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int employees;
+
+    private List<User> employeeList;
+    private List<SalaryComponent> components;
+    private List<DetailedPaycheckDto> details;
+    private RepositoryStubs repositories;
+    private UserRepository userRepository;
+    private PayrollCalculator calculator;
+    private PayrollService payrollService;
+
+    // Repository calls summed over each iteration, reported by JMH as the iteration total
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RoundTrips {
+        public long repositoryCalls;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            repositoryCalls = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        employeeList = SyntheticData.employees(employees);
+        components = SyntheticData.salaryComponents();
+        details = SyntheticData.paycheckDetails(employees);
+        Map<String, User> employeesById = employeeList.stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        repositories = new RepositoryStubs()
+                .answer("findPayrollFieldsByIdIn", args -> employeeList)
+                .answer("findById", args -> Optional.ofNullable(employeesById.get((String) args[0])))
+                .answer("save", args -> {
+                    PayrollRun run = (PayrollRun) args[0];
+                    if (run.getId() == null) {
+                        run.setId("benchmark-run");
+                    }
+                    return run;
+                })
+                .answer("saveAll", args -> args[0])
+                .answer("insert", args -> args[0])
+                .answer("insertUnordered", args -> args[0]);
+        userRepository = repositories.stub(UserRepository.class);
+        calculator = new PayrollCalculator();
+        payrollService = new PayrollService(repositories.stub(PayrollRunRepository.class),
+                repositories.stub(PaycheckRepository.class), userRepository,
+                repositories.stub(SalaryComponentRepository.class), calculator,
+                new LatestPayslipService(repositories.stub(LatestPayslipRepository.class), 50_000),
+                new PayslipService(repositories.stub(PaycheckRepository.class), repositories.stub(PayslipDocumentRepository.class),
+                        new PayslipRenderer(), Runnable::run),
+                new YearToDateService(repositories.stub(YearToDateRepository.class), repositories.stub(PaycheckRepository.class),
+                        repositories.stub(PayrollRunRepository.class)));
+    }
+
+    @Benchmark
+    public List<Paycheck> calculateRun() {
+        return calculator.calculate(employeeList, components, SyntheticData.PERIOD_START, SyntheticData.PERIOD_END);
+    }
+
+    @Benchmark
+    public PayrollRun previewWithDetails(RoundTrips roundTrips) {
+        repositories.resetRoundTrips();
+        PayrollRun run = payrollService.previewPayrollWithDetails(SyntheticData.PERIOD_START, SyntheticData.PERIOD_END,
+                details, "benchmark-admin");
+        roundTrips.repositoryCalls += repositories.roundTrips();
+        return run;
+    }
+
+    /**
+     * The employee lookup as the preview did it before the batched query: one findById per row.
+     */
+    @Benchmark
+    public void lookupEmployeesPerRow(RoundTrips roundTrips, Blackhole blackhole) {
+        repositories.resetRoundTrips();
+        for (DetailedPaycheckDto dto : details) {
+            blackhole.consume(userRepository.findById(dto.getEmployeeId()));
+        }
+        roundTrips.repositoryCalls += repositories.roundTrips();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ahadu.payroll.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the Spring Data repositories, so services can be benchmarked
+ * without MongoDB. Every answered call counts as one database round trip.
+ */
+final class RepositoryStubs {
+
+    private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+    private long roundTrips;
+
+    /**
+     * Answers every call to the repository method with the given name.
+     */
+    RepositoryStubs answer(String methodName, Function<Object[], Object> answer) {
+        answers.put(methodName, answer);
+        return this;
+    }
+
+    /**
+     * Creates a proxy for the repository interface. Methods without an answer throw, so a
+     * benchmark can never silently measure a path that skipped the database.
+     */
+    <T> T stub(Class<T> repositoryType) {
+        Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (self, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> self == args[0];
+                            case "hashCode" -> System.identityHashCode(self);
+                            default -> repositoryType.getSimpleName() + " stub";
+                        };
+                    }
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName() + " is not stubbed");
+                    }
+                    roundTrips++;
+                    return answer.apply(args);
+                });
+        return repositoryType.cast(proxy);
+    }
+
+    long roundTrips() {
+        return roundTrips;
+    }
+
+    void resetRoundTrips() {
+        roundTrips = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.service.PayrollRunTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reduction of a run's paychecks to its gross, deductions and net totals, comparing
+ * {@link PayrollRunTotals} with the three BigDecimal stream reductions it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RunTotalsBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int employees;
+
+    private List<Paycheck> paychecks;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        paychecks = SyntheticData.paychecks(employees);
+    }
+
+    @Benchmark
+    public PayrollRunTotals fixedPointTotals() {
+        return PayrollRunTotals.of(paychecks);
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalTotals() {
+        return new BigDecimal[] {
+                paychecks.stream().map(Paycheck::getGrossPay).reduce(BigDecimal.ZERO, BigDecimal::add),
+                paychecks.stream().map(Paycheck::getTotalDeductions).reduce(BigDecimal.ZERO, BigDecimal::add),
+                paychecks.stream().map(Paycheck::getNetPay).reduce(BigDecimal.ZERO, BigDecimal::add)
+        };
+    }
+}
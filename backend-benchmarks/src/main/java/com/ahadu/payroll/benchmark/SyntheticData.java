@@ -0,0 +1,110 @@
+package com.ahadu.payroll.benchmark;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.SalaryComponent;
+import com.ahadu.payroll.model.User;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic employees, paychecks and attendance records for the benchmarks.
+ * A fixed seed keeps runs comparable between machines and between before/after changes.
+ */
+final class SyntheticData {
+
+    static final LocalDate PERIOD_START = LocalDate.of(2024, 1, 1);
+    static final LocalDate PERIOD_END = LocalDate.of(2024, 1, 31);
+
+    private static final long SEED = 20240101L;
+
+    private SyntheticData() {
+    }
+
+    static String employeeId(int index) {
+        return String.format("emp%08d", index);
+    }
+
+    static List<User> employees(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<User> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("employee" + i, "employee" + i + "@example.com", "");
+            user.setId(employeeId(i));
+            user.setBaseSalary(amount(random, 3_000, 60_000));
+            user.setTaxPercentage(BigDecimal.valueOf(random.nextInt(0, 36)));
+            user.setCommissionPercentage(BigDecimal.valueOf(random.nextInt(0, 101), 1));
+            user.setProvidentFundPercentage(BigDecimal.valueOf(7));
+            user.setStatus("Active");
+            employees.add(user);
+        }
+        return employees;
+    }
+
+    static List<SalaryComponent> salaryComponents() {
+        List<SalaryComponent> components = new ArrayList<>();
+        components.add(new SalaryComponent("Transport Allowance", "Earning", new BigDecimal("5.5"), true));
+        components.add(new SalaryComponent("Housing Allowance", "Earning", new BigDecimal("10"), true));
+        components.add(new SalaryComponent("Pension", "Deduction", new BigDecimal("4"), true));
+        components.add(new SalaryComponent("Health Levy", "Tax", new BigDecimal("1.25"), true));
+        return components;
+    }
+
+    static List<DetailedPaycheckDto> paycheckDetails(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<DetailedPaycheckDto> details = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DetailedPaycheckDto dto = new DetailedPaycheckDto();
+            dto.setEmployeeId(employeeId(i));
+            dto.setBaseSalary(amount(random, 3_000, 60_000));
+            dto.setCommissionAmount(amount(random, 0, 5_000));
+            dto.setTaxDeduction(amount(random, 0, 15_000));
+            dto.setProvidentFundDeduction(amount(random, 0, 4_000));
+            dto.setLatePenaltyDeduction(amount(random, 0, 200));
+            dto.setAbsentPenaltyDeduction(amount(random, 0, 500));
+            details.add(dto);
+        }
+        return details;
+    }
+
+    static List<Paycheck> paychecks(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Paycheck> paychecks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            BigDecimal grossPay = amount(random, 3_000, 65_000);
+            BigDecimal deductions = amount(random, 0, 2_500);
+            Paycheck paycheck = new Paycheck();
+            paycheck.setEmployeeId(employeeId(i));
+            paycheck.setGrossPay(grossPay);
+            paycheck.setTotalDeductions(deductions);
+            paycheck.setNetPay(grossPay.subtract(deductions));
+            paychecks.add(paycheck);
+        }
+        return paychecks;
+    }
+
+    /**
+     * One attendance record per employee and working day, so {@code days} records share
+     * each employee ID the way a month of real attendance does.
+     */
+    static List<Attendance> attendance(int employees, int days) {
+        List<Attendance> records = new ArrayList<>(employees * days);
+        for (int day = 0; day < days; day++) {
+            LocalDate date = PERIOD_START.plusDays(day);
+            for (int i = 0; i < employees; i++) {
+                records.add(new Attendance(employeeId(i), date, LocalTime.of(8, 15), LocalTime.of(17, 0), "Present", null));
+            }
+        }
+        return records;
+    }
+
+    private static BigDecimal amount(SplittableRandom random, int min, int max) {
+        return BigDecimal.valueOf(random.nextLong(min * 100L, max * 100L), 2);
+    }
+}
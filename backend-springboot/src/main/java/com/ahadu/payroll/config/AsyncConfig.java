@@ -0,0 +1,50 @@
+package com.ahadu.payroll.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for work that must not run on the HTTP request threads.
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Bounded pool for background payroll jobs. Only a few jobs run at once and the rest
+     * wait in a fixed-size queue, so large payroll runs cannot starve the request threads
+     * that serve interactive endpoints. Submissions beyond the queue capacity are rejected.
+     */
+    @Bean(name = "payrollJobExecutor")
+    public ThreadPoolTaskExecutor payrollJobExecutor(
+            @Value("${payroll.jobs.threads:2}") int threads,
+            @Value("${payroll.jobs.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payroll-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Bounded pool that pre-renders the PDF payslips of finalized runs. Kept apart from the
+     * payroll job pool so rendering never delays a payroll preview.
+     */
+    @Bean(name = "payslipRenderExecutor")
+    public ThreadPoolTaskExecutor payslipRenderExecutor(
+            @Value("${payroll.payslips.render-threads:2}") int threads,
+            @Value("${payroll.payslips.queue-capacity:50}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payslip-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
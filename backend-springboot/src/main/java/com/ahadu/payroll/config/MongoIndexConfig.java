@@ -0,0 +1,96 @@
+package com.ahadu.payroll.config;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.model.LatestPayslip;
+import com.ahadu.payroll.model.LeaveRequest;
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.model.PayslipDocument;
+import com.ahadu.payroll.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+
+/**
+ * Creates the indexes the query paths depend on.
+ * Automatic index creation is disabled in application.properties, so the indexes
+ * are ensured explicitly once the application has started. ensureIndex is a no-op
+ * when the index already exists.
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        // Paged paycheck listing of a payroll run, ordered by employee username
+        mongoTemplate.indexOps(Paycheck.class).ensureIndex(new Index()
+                .on("payrollRunId", Sort.Direction.ASC)
+                .on("employeeUsername", Sort.Direction.ASC)
+                .named("payrollRunId_employeeUsername"));
+
+        // Keyset-paginated payslip history of an employee, newest pay period first
+        mongoTemplate.indexOps(Paycheck.class).ensureIndex(new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("payPeriodStart", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("employeeId_payPeriodStart"));
+
+        // Payroll run listing, newest pay period first, with and without a status filter
+        mongoTemplate.indexOps(PayrollRun.class).ensureIndex(new Index()
+                .on("payPeriodStart", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("payPeriodStart"));
+        mongoTemplate.indexOps(PayrollRun.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("payPeriodStart", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("status_payPeriodStart"));
+
+        // Employees whose latest-payslip pointer references a run, looked up when the run is deleted
+        mongoTemplate.indexOps(LatestPayslip.class).ensureIndex(new Index()
+                .on("paycheck.payrollRunId", Sort.Direction.ASC)
+                .named("paycheck_payrollRunId"));
+
+        // Rendered payslips of a run: skipped by prerendering and removed with the run
+        mongoTemplate.indexOps(PayslipDocument.class).ensureIndex(new Index()
+                .on("payrollRunId", Sort.Direction.ASC)
+                .named("payrollRunId"));
+
+        // Daily attendance overview: one day's records counted per status
+        mongoTemplate.indexOps(Attendance.class).ensureIndex(new Index()
+                .on("date", Sort.Direction.ASC)
+                .on("status", Sort.Direction.ASC)
+                .named("date_status"));
+
+        // The unique (employeeId, date) attendance index is created by AttendanceUniqueDayMigration,
+        // which first removes duplicate days recorded before clock-in became an upsert.
+
+        // Active headcount
+        mongoTemplate.indexOps(User.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .named("status"));
+
+        // Approved leaves covering a day; only current and future leaves are scanned
+        mongoTemplate.indexOps(LeaveRequest.class).ensureIndex(new Index()
+                .on("status", Sort.Direction.ASC)
+                .on("endDate", Sort.Direction.ASC)
+                .named("status_endDate"));
+
+        logger.info("MongoDB indexes ensured.");
+    }
+}
@@ -1,18 +1,31 @@
 package com.ahadu.payroll.config;
 
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Paths;
+import java.util.concurrent.Callable;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // The ZIP export of a run's payslips, streamed on an async request thread
+    private static final String PAYSLIP_ARCHIVE_PATH = "/api/payroll/run/*/payslips.zip";
+
     @Value("${file.upload-dir}")
     private String uploadDir; // Inject the upload directory from application.properties
 
+    @Value("${payroll.payslips.archive-timeout-ms:1800000}")
+    private long payslipArchiveTimeoutMillis;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Expose the upload directory as a static resource handler
@@ -24,4 +37,23 @@ public class WebConfig implements WebMvcConfigurer {
         // is correctly configured and mounted for /uploads/.
         // Render's ephemeral disk means files uploaded there will be lost on restart.
     }
+
+    /**
+     * Gives the payslip ZIP export a longer time limit than other async responses. The
+     * interceptor runs before the async request is started, so the timeout still applies.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                HttpServletRequest servletRequest = request.getNativeRequest(HttpServletRequest.class);
+                if (request instanceof AsyncWebRequest asyncRequest && servletRequest != null
+                        && pathMatcher.match(PAYSLIP_ARCHIVE_PATH, servletRequest.getServletPath())) {
+                    asyncRequest.setTimeout(payslipArchiveTimeoutMillis);
+                }
+            }
+        });
+    }
 }
\ No newline at end of file
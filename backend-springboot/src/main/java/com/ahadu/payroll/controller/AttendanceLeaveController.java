@@ -3,8 +3,10 @@ package com.ahadu.payroll.controller;
 import com.ahadu.payroll.model.Attendance;
 import com.ahadu.payroll.model.LeaveRequest;
 import com.ahadu.payroll.payload.AttendanceOverviewResponse;
+import com.ahadu.payroll.payload.MessageResponse;
 import com.ahadu.payroll.security.UserDetailsImpl;
 import com.ahadu.payroll.service.AttendanceService;
+import com.ahadu.payroll.service.AttendanceWriteBehind;
 import com.ahadu.payroll.service.LeaveRequestService;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,19 +29,22 @@ public class AttendanceLeaveController {
 
     private final AttendanceService attendanceService;
     private final LeaveRequestService leaveRequestService;
+    private final AttendanceWriteBehind attendanceWriteBehind;
     
     private static final LocalTime LATE_CUTOFF_TIME = LocalTime.of(8, 30); 
     private static final LocalTime ABSENT_CUTOFF_TIME = LocalTime.of(14, 0);
 
     @Autowired
-    public AttendanceLeaveController(AttendanceService attendanceService, LeaveRequestService leaveRequestService) {
+    public AttendanceLeaveController(AttendanceService attendanceService, LeaveRequestService leaveRequestService,
+                                     AttendanceWriteBehind attendanceWriteBehind) {
         this.attendanceService = attendanceService;
         this.leaveRequestService = leaveRequestService;
+        this.attendanceWriteBehind = attendanceWriteBehind;
     }
 
     @PostMapping("/attendance")
     @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
-    public ResponseEntity<Attendance> saveAttendance(@RequestBody Attendance attendance) {
+    public ResponseEntity<?> saveAttendance(@RequestBody Attendance attendance) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
@@ -57,8 +62,39 @@ public class AttendanceLeaveController {
         } else {
             attendance.setStatus("Present");
         }
-        Attendance savedAttendance = attendanceService.saveAttendance(attendance);
-        return new ResponseEntity<>(savedAttendance, HttpStatus.CREATED);
+        if (attendanceWriteBehind.isEnabled()) {
+            // Acknowledged once queued; the record is written with the next bulk write.
+            // A repeated clock-in returns the record that is already queued or stored for the day.
+            try {
+                Attendance queuedAttendance = attendanceWriteBehind.enqueue(attendance);
+                return new ResponseEntity<>(queuedAttendance, queuedAttendance == attendance ? HttpStatus.ACCEPTED : HttpStatus.OK);
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse(e.getMessage()));
+            }
+        }
+        Attendance storedAttendance = attendanceService.clockIn(attendance);
+        // A repeated clock-in returns the record that already exists for the day
+        boolean created = storedAttendance.getId().equals(attendance.getId());
+        return new ResponseEntity<>(storedAttendance, created ? HttpStatus.CREATED : HttpStatus.OK);
+    }
+
+    @PutMapping("/attendance/{id}/clock-out")
+    @PreAuthorize("hasAnyAuthority('USER', 'ADMIN')")
+    public ResponseEntity<?> clockOut(@PathVariable String id, @RequestBody Attendance clockOut) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetailsImpl)) {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
+        LocalTime clockOutTime = clockOut.getClockOutTime() != null ? clockOut.getClockOutTime() : LocalTime.now();
+        if (attendanceWriteBehind.isEnabled()) {
+            // A clock-in acknowledged with 202 may still be queued; write it before clocking out of it
+            attendanceWriteBehind.flushPending(id, userDetails.getId());
+        }
+        return attendanceService.clockOut(id, userDetails.getId(), clockOutTime, clockOut.getRemarks())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse("No open clock-in was found for this attendance record.")));
     }
 
     @PutMapping("/attendance/{id}")
@@ -1,14 +1,41 @@
 package com.ahadu.payroll.controller;
 
 import com.ahadu.payroll.model.*;
+import com.ahadu.payroll.service.LatestPayslipService;
+import com.ahadu.payroll.service.PayrollDryRunService;
+import com.ahadu.payroll.service.PayrollIngestService;
+import com.ahadu.payroll.service.PayrollJob;
+import com.ahadu.payroll.service.PayrollJobService;
 import com.ahadu.payroll.service.PayrollService;
+import com.ahadu.payroll.service.PayslipService;
+import com.ahadu.payroll.service.YearToDateService;
 import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.payload.FinalizeRequest;
+import com.ahadu.payroll.payload.MessageResponse;
+import com.ahadu.payroll.payload.PayrollPeriodTotals;
+import com.ahadu.payroll.payload.PayslipPage;
+import com.ahadu.payroll.security.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -18,30 +45,108 @@ import java.util.Optional;
 public class PayrollController {
 
     private final PayrollService payrollService;
+    private final PayrollJobService payrollJobService;
+    private final PayrollIngestService payrollIngestService;
+    private final LatestPayslipService latestPayslipService;
+    private final PayslipService payslipService;
+    private final YearToDateService yearToDateService;
+    private final PayrollDryRunService payrollDryRunService;
 
     @Autowired
-    public PayrollController(PayrollService payrollService) {
+    public PayrollController(PayrollService payrollService, PayrollJobService payrollJobService,
+                             PayrollIngestService payrollIngestService, LatestPayslipService latestPayslipService,
+                             PayslipService payslipService, YearToDateService yearToDateService,
+                             PayrollDryRunService payrollDryRunService) {
         this.payrollService = payrollService;
+        this.payrollJobService = payrollJobService;
+        this.payrollIngestService = payrollIngestService;
+        this.latestPayslipService = latestPayslipService;
+        this.payslipService = payslipService;
+        this.yearToDateService = yearToDateService;
+        this.payrollDryRunService = payrollDryRunService;
     }
 
     @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
     @GetMapping("/my-payslips")
-    public ResponseEntity<List<Paycheck>> getMyPayslips(Authentication authentication) {
-        String currentUserId = authentication.getName(); // Get the authenticated user's ID
-        List<Paycheck> payslips = payrollService.getPaychecksByEmployeeId(currentUserId);
-        if (payslips.isEmpty()) {
+    public ResponseEntity<?> getMyPayslips(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "12") int size,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String status,
+            Authentication authentication) {
+        String currentUserId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        try {
+            PayslipPage page = payrollService.getPayslipPage(currentUserId, year, status, cursor, Math.min(Math.max(size, 1), 100));
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
+    @GetMapping("/my-payslips/latest")
+    public ResponseEntity<Paycheck> getMyLatestPayslip(Authentication authentication) {
+        String currentUserId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        return latestPayslipService.getLatestPayslip(currentUserId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
+    @GetMapping("/my-ytd")
+    public ResponseEntity<YearToDate> getMyYearToDate(@RequestParam(required = false) Integer year, Authentication authentication) {
+        String currentUserId = ((UserDetailsImpl) authentication.getPrincipal()).getId();
+        return ResponseEntity.ok(yearToDateService.getYearToDate(currentUserId, year != null ? year : LocalDate.now().getYear()));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/ytd/{employeeId}")
+    public ResponseEntity<YearToDate> getYearToDate(@PathVariable String employeeId, @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(yearToDateService.getYearToDate(employeeId, year != null ? year : LocalDate.now().getYear()));
+    }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'USER')")
+    @GetMapping("/payslips/{id}/download")
+    public ResponseEntity<byte[]> downloadPayslip(@PathVariable String id, Authentication authentication, WebRequest request) {
+        UserDetailsImpl currentUser = (UserDetailsImpl) authentication.getPrincipal();
+        boolean isAdmin = currentUser.getAuthorities().stream().anyMatch(authority -> "ADMIN".equals(authority.getAuthority()));
+        Optional<PayslipDocument> payslip = payslipService.getPayslip(id)
+                .filter(document -> isAdmin || currentUser.getId().equals(document.getEmployeeId()));
+        if (payslip.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(payslips);
+
+        // Stored payslips never change, so the content hash is a strong validator
+        String etag = "\"" + payslip.get().getContentHash() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null; // 304 Not Modified has already been prepared
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(payslip.get().getFileName()).build().toString())
+                .body(payslip.get().getContent());
     }
 
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/runs")
-    public ResponseEntity<List<PayrollRun>> getAllPayrollRuns() {
-        List<PayrollRun> payrollRuns = payrollService.getAllPayrollRuns();
-        return ResponseEntity.ok(payrollRuns);
+    public ResponseEntity<Page<PayrollRun>> getPayrollRuns(
+            @RequestParam(required = false) String status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 100),
+                Sort.by(Sort.Direction.DESC, "payPeriodStart", "_id"));
+        return ResponseEntity.ok(payrollService.getPayrollRunSummaries(status, pageable));
     }
     
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/runs/totals")
+    public ResponseEntity<PayrollPeriodTotals> getPeriodTotals(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        return ResponseEntity.ok(payrollService.getPeriodTotals(from, to));
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @GetMapping("/run/{id}")
     public ResponseEntity<PayrollRun> getPayrollRunById(@PathVariable String id) {
@@ -50,25 +155,160 @@ public class PayrollController {
                          .orElse(ResponseEntity.notFound().build());
     }
 
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/run/{id}/paychecks")
+    public ResponseEntity<Page<Paycheck>> getPayrollRunPaychecks(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
+        Pageable pageable = PageRequest.of(page, Math.min(Math.max(size, 1), 500), Sort.by("employeeUsername"));
+        return ResponseEntity.ok(payrollService.getPaychecksByPayrollRunId(id, pageable));
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/run/{id}/variance")
+    public ResponseEntity<?> getNetPayVariance(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "10") BigDecimal threshold) {
+        try {
+            return ResponseEntity.ok(payrollService.getNetPayVariance(id, threshold));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/run/{id}/totals")
+    public ResponseEntity<?> refreshRunTotals(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok(payrollService.refreshRunTotals(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @PostMapping("/preview")
-    public ResponseEntity<PayrollRun> previewPayroll(
+    public ResponseEntity<?> previewPayroll(
             @RequestParam LocalDate payPeriodStart,
             @RequestParam LocalDate payPeriodEnd,
+            @RequestParam(defaultValue = "false") boolean async,
+            @RequestParam(defaultValue = "false") boolean dryRun,
             @RequestBody List<DetailedPaycheckDto> payrollDetails,
             Authentication authentication) {
         String currentUserId = authentication.getName();
-        
-        PayrollRun payrollRun = payrollService.previewPayrollWithDetails(payPeriodStart, payPeriodEnd, payrollDetails, currentUserId);
+        if (dryRun) {
+            try {
+                return ResponseEntity.ok(payrollDryRunService.preview(payPeriodStart, payPeriodEnd, payrollDetails, currentUserId));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            } catch (IllegalStateException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new MessageResponse(e.getMessage()));
+            }
+        }
+        if (async) {
+            try {
+                PayrollJob job = payrollJobService.submitPreview(payPeriodStart, payPeriodEnd, payrollDetails, currentUserId);
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+            } catch (TaskRejectedException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(new MessageResponse("Too many payroll jobs are queued. Please try again later."));
+            }
+        }
+        try {
+            PayrollRun payrollRun = payrollService.previewPayrollWithDetails(payPeriodStart, payPeriodEnd, payrollDetails, currentUserId);
+            return ResponseEntity.ok(payrollRun);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/preview/{token}/commit")
+    public ResponseEntity<PayrollRun> commitPreview(@PathVariable String token, Authentication authentication) {
+        return payrollDryRunService.commit(token, authentication.getName())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/run/{id}/payslips.zip")
+    public ResponseEntity<?> downloadRunPayslips(@PathVariable String id) {
+        Optional<PayrollRun> payrollRun = payrollService.getPayrollRunById(id);
+        if (payrollRun.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if ("DRAFT".equals(payrollRun.get().getStatus()) || "GENERATING".equals(payrollRun.get().getStatus())) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Payslips are only available once the payroll is finalized."));
+        }
+        // Written on an async request thread while the client downloads; nothing is buffered
+        StreamingResponseBody archive = out -> payslipService.writeRunArchive(id, out);
+        String fileName = "payslips-" + payrollRun.get().getPayPeriodStart() + "-to-" + payrollRun.get().getPayPeriodEnd() + ".zip";
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(archive);
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PutMapping("/run/{id}/paychecks/{employeeId}")
+    public ResponseEntity<?> recomputePaycheck(
+            @PathVariable String id,
+            @PathVariable String employeeId,
+            @RequestBody DetailedPaycheckDto details) {
+        try {
+            return ResponseEntity.ok(payrollService.recomputePaycheck(id, employeeId, details));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<PayrollJob> getPayrollJob(@PathVariable String id) {
+        return payrollJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping("/calculate")
+    public ResponseEntity<PayrollRun> calculatePayroll(
+            @RequestParam LocalDate payPeriodStart,
+            @RequestParam LocalDate payPeriodEnd,
+            Authentication authentication) {
+        String currentUserId = authentication.getName();
+
+        PayrollRun payrollRun = payrollService.calculatePayroll(payPeriodStart, payPeriodEnd, currentUserId);
         return ResponseEntity.ok(payrollRun);
     }
 
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @PostMapping(value = "/preview/stream", consumes = {PayrollIngestService.NDJSON, PayrollIngestService.CSV})
+    public ResponseEntity<?> previewPayrollStream(
+            @RequestParam LocalDate payPeriodStart,
+            @RequestParam LocalDate payPeriodEnd,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
+            Authentication authentication) throws IOException {
+        String currentUserId = authentication.getName();
+        String format = MediaType.parseMediaType(contentType).getSubtype().equals("csv")
+                ? PayrollIngestService.CSV : PayrollIngestService.NDJSON;
+        try {
+            return ResponseEntity.ok(payrollIngestService.ingestPreview(body, format, payPeriodStart, payPeriodEnd, currentUserId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
     @PreAuthorize("hasAuthority('ADMIN')")
     @PostMapping("/finalize")
-    public ResponseEntity<PayrollRun> finalizePayroll(@RequestBody PayrollRun payrollRun, Authentication authentication) {
+    public ResponseEntity<PayrollRun> finalizePayroll(@RequestBody FinalizeRequest finalizeRequest, Authentication authentication) {
         String currentUserId = authentication.getName();
         try {
-            PayrollRun finalizedRun = payrollService.finalizePayroll(payrollRun.getId(), currentUserId);
+            PayrollRun finalizedRun = payrollService.finalizePayroll(finalizeRequest.getPayrollRunId(), currentUserId);
             return ResponseEntity.ok(finalizedRun);
         } catch (IllegalStateException | IllegalArgumentException e) {
             return ResponseEntity.status(403).body(null);
@@ -83,6 +323,9 @@ public class PayrollController {
             return ResponseEntity.ok(paidRun);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            // The run changed between the conditional update and the status check; the client can retry
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
     }
 
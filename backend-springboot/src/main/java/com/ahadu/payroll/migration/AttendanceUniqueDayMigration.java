@@ -0,0 +1,163 @@
+package com.ahadu.payroll.migration;
+
+import com.ahadu.payroll.model.Attendance;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * One-off migration that makes attendance unique per employee and day.
+ * Before clock-in became an upsert, repeated clicks could store several records for the
+ * same day, and a clock-out went to whichever of them the client held. For each such day
+ * the migration merges the records into one: it keeps the record with the earliest clock-in,
+ * gives it the latest clock-out and the remarks of all of them, and removes the rest. It then
+ * replaces the plain (employeeId, date) index with a unique one. Once the unique index exists
+ * the migration does nothing, so it is safe to run on every startup.
+ */
+@Component
+public class AttendanceUniqueDayMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceUniqueDayMigration.class);
+
+    private static final String INDEX_NAME = "employeeId_date";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public AttendanceUniqueDayMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Attendance.class);
+        Optional<IndexInfo> existing = indexOps.getIndexInfo().stream()
+                .filter(index -> INDEX_NAME.equals(index.getName()))
+                .findFirst();
+        if (existing.isPresent() && existing.get().isUnique()) {
+            return;
+        }
+
+        long removed = mergeDuplicates();
+        // MongoDB does not allow a second index on the same keys, so the plain one is dropped first
+        if (existing.isPresent()) {
+            indexOps.dropIndex(INDEX_NAME);
+        }
+        try {
+            indexOps.ensureIndex(dayIndex().unique());
+        } catch (DataAccessException e) {
+            // A duplicate written while the migration ran; it is merged on the next startup.
+            // Until then the plain index keeps the per-day lookups indexed.
+            logger.warn("Could not make attendance unique per employee and day yet: {}", e.getMessage());
+            indexOps.ensureIndex(dayIndex());
+            return;
+        }
+        logger.info("Merged away {} duplicate attendance records and made (employeeId, date) unique.", removed);
+    }
+
+    private static Index dayIndex() {
+        return new Index()
+                .on("employeeId", Sort.Direction.ASC)
+                .on("date", Sort.Direction.ASC)
+                .named(INDEX_NAME);
+    }
+
+    private long mergeDuplicates() {
+        Aggregation duplicates = Aggregation.newAggregation(
+                stage("$addFields", new Document("hasClockIn", new Document("$cond", List.of(
+                        new Document("$in", List.of(new Document("$type", "$clockInTime"), List.of("missing", "null"))), 0, 1)))),
+                stage("$sort", new Document("employeeId", 1).append("date", 1)
+                        .append("hasClockIn", -1).append("clockInTime", 1).append("_id", 1)),
+                stage("$group", new Document("_id", new Document("employeeId", "$employeeId").append("date", "$date"))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("latestClockOut", new Document("$max", "$clockOutTime"))
+                        .append("remarks", new Document("$push", "$remarks"))
+                        .append("count", new Document("$sum", 1))),
+                stage("$match", new Document("count", new Document("$gt", 1))))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        long removed = 0;
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Document> days = mongoTemplate.aggregateStream(duplicates,
+                mongoTemplate.getCollectionName(Attendance.class), Document.class)) {
+            for (Document day : (Iterable<Document>) days::iterator) {
+                batch.add(day);
+                if (batch.size() == BATCH_SIZE) {
+                    removed += merge(batch);
+                }
+            }
+        }
+        return batch.isEmpty() ? removed : removed + merge(batch);
+    }
+
+    /**
+     * Moves the latest clock-out and all remarks of each duplicated day onto the record that is
+     * kept, then removes the other records. The kept record is updated before anything is removed.
+     *
+     * @return The number of records removed.
+     */
+    private long merge(List<Document> days) {
+        BulkOperations keep = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        List<Object> removedIds = new ArrayList<>();
+        boolean anyMerged = false;
+        for (Document day : days) {
+            List<?> ids = day.getList("ids", Object.class);
+            // The first ID is the record with the earliest clock-in, which is kept
+            Update merged = new Update();
+            Object latestClockOut = day.get("latestClockOut");
+            if (latestClockOut != null) {
+                merged.set("clockOutTime", latestClockOut);
+            }
+            Set<String> remarks = new LinkedHashSet<>();
+            day.getList("remarks", Object.class).stream()
+                    .filter(Objects::nonNull)
+                    .map(Object::toString)
+                    .filter(remark -> !remark.isBlank())
+                    .forEach(remarks::add);
+            if (!remarks.isEmpty()) {
+                merged.set("remarks", String.join("; ", remarks));
+            }
+            if (!merged.getUpdateObject().isEmpty()) {
+                keep.updateOne(new Query(Criteria.where("_id").is(ids.get(0))), merged);
+                anyMerged = true;
+            }
+            removedIds.addAll(ids.subList(1, ids.size()));
+        }
+        if (anyMerged) {
+            keep.execute();
+        }
+        long deleted = mongoTemplate.remove(new Query(Criteria.where("_id").in(removedIds)), Attendance.class).getDeletedCount();
+        days.clear();
+        return deleted;
+    }
+
+    private static AggregationOperation stage(String operator, Object specification) {
+        return context -> new Document(operator, specification);
+    }
+}
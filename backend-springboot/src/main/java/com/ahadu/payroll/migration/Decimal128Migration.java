@@ -0,0 +1,105 @@
+package com.ahadu.payroll.migration;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.model.SalaryComponent;
+import com.ahadu.payroll.model.User;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DataTypeOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites money fields that were stored as strings into BSON Decimal128, to match the
+ * converters in MongoConversionConfig.
+ * The migration runs online: documents are converted in small batches, each a single
+ * server-side update, while the application keeps serving requests. Reads work on both
+ * representations in the meantime. Only string values are touched, so the migration
+ * can be interrupted and is safe to run on every startup.
+ */
+@Component
+public class Decimal128Migration {
+
+    private static final Logger logger = LoggerFactory.getLogger(Decimal128Migration.class);
+
+    // Documents converted per update
+    private static final int BATCH_SIZE = 500;
+
+    private static final Map<Class<?>, List<String>> MONEY_FIELDS = new LinkedHashMap<>();
+
+    static {
+        MONEY_FIELDS.put(Paycheck.class, List.of("grossPay", "commissionAmount", "taxDeduction", "providentFundDeduction",
+                "latePenaltyDeduction", "absentPenaltyDeduction", "totalDeductions", "netPay"));
+        MONEY_FIELDS.put(PayrollRun.class, List.of("totalGrossPay", "totalDeductions", "totalNetPay"));
+        MONEY_FIELDS.put(User.class, List.of("baseSalary", "taxPercentage", "commissionPercentage", "providentFundPercentage"));
+        MONEY_FIELDS.put(SalaryComponent.class, List.of("amount"));
+    }
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public Decimal128Migration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        MONEY_FIELDS.forEach(this::migrate);
+    }
+
+    private void migrate(Class<?> entityClass, List<String> fields) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        Criteria anyString = new Criteria().orOperator(fields.stream()
+                .map(field -> Criteria.where(field).type(JsonSchemaObject.Type.STRING))
+                .collect(Collectors.toList()));
+        AggregationUpdate toDecimal = AggregationUpdate.update();
+        fields.forEach(field -> toDecimal.set(field).toValue(stringToDecimal(field)));
+
+        long migrated = 0;
+        Object lastId = null;
+        while (true) {
+            // Walk the collection in _id order so every batch is an index range scan
+            Query batchQuery = new Query(lastId == null ? anyString : new Criteria().andOperator(anyString, Criteria.where("_id").gt(lastId)))
+                    .with(Sort.by("_id"))
+                    .limit(BATCH_SIZE);
+            batchQuery.fields().include("_id");
+            List<Object> ids = mongoTemplate.find(batchQuery, Document.class, collection).stream()
+                    .map(document -> document.get("_id"))
+                    .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                break;
+            }
+            migrated += mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)), toDecimal, collection)
+                    .getModifiedCount();
+            lastId = ids.get(ids.size() - 1);
+        }
+        if (migrated > 0) {
+            logger.info("Migrated money fields of {} {} documents to Decimal128.", migrated, collection);
+        }
+    }
+
+    // { $cond: [ { $eq: [ { $type: "$field" }, "string" ] }, { $toDecimal: "$field" }, "$field" ] }
+    private static ConditionalOperators.Cond stringToDecimal(String field) {
+        return ConditionalOperators.when(ComparisonOperators.valueOf(DataTypeOperators.typeOf(field)).equalToValue("string"))
+                .thenValueOf(ConvertOperators.valueOf(field).convertToDecimal())
+                .otherwiseValueOf(field);
+    }
+}
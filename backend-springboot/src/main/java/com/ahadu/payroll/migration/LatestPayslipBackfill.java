@@ -0,0 +1,39 @@
+package com.ahadu.payroll.migration;
+
+import com.ahadu.payroll.repository.LatestPayslipRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off backfill of the latest-payslip pointers for paychecks that were approved or paid
+ * before the pointers were maintained. Runs only while the pointer collection is empty,
+ * so it is safe to run on every startup.
+ */
+@Component
+public class LatestPayslipBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatestPayslipBackfill.class);
+
+    private final LatestPayslipRepository latestPayslipRepository;
+
+    @Autowired
+    public LatestPayslipBackfill(LatestPayslipRepository latestPayslipRepository) {
+        this.latestPayslipRepository = latestPayslipRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (latestPayslipRepository.count() > 0) {
+            return;
+        }
+        latestPayslipRepository.rebuildAllPointers();
+        long pointers = latestPayslipRepository.count();
+        if (pointers > 0) {
+            logger.info("Backfilled latest payslip pointers for {} employees.", pointers);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ahadu.payroll.migration;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.mongodb.client.result.UpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off migration that turns payroll run documents written before paychecks were
+ * split out into summary documents.
+ * Older runs embed a full copy of every paycheck in a 'paychecks' array. The paychecks
+ * already exist in their own collection, so the array is replaced by a 'paycheckCount'
+ * in a single server-side update. Runs without the array are left untouched, which
+ * makes the migration safe to run on every startup.
+ */
+@Component
+public class PayrollRunSummaryMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollRunSummaryMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PayrollRunSummaryMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Query embeddedRuns = new Query(Criteria.where("paychecks").type(JsonSchemaObject.Type.ARRAY));
+        AggregationUpdate toSummary = AggregationUpdate.update()
+                .set("paycheckCount").toValue(ArrayOperators.Size.lengthOfArray("paychecks"))
+                .unset("paychecks");
+
+        UpdateResult result = mongoTemplate.updateMulti(embeddedRuns, toSummary, PayrollRun.class);
+        if (result.getModifiedCount() > 0) {
+            logger.info("Migrated {} payroll runs to summary documents.", result.getModifiedCount());
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ahadu.payroll.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+
+/**
+ * Pointer to an employee's most recent APPROVED or PAID paycheck, keyed by employee ID.
+ * Holds a snapshot of the paycheck so the latest payslip is served with a single
+ * primary-key read. Maintained by LatestPayslipRepository whenever a run is finalized,
+ * paid or deleted; never written by clients.
+ * Stored as a document in the 'latestPayslips' collection in MongoDB.
+ */
+@Document(collection = "latestPayslips")
+public class LatestPayslip {
+
+    @Id
+    private String employeeId;
+    private LocalDate payPeriodStart; // Copied from the paycheck; newer pay periods replace older ones
+    private Paycheck paycheck;
+
+    // Getters and Setters
+    public String getEmployeeId() {
+        return employeeId;
+    }
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+    public LocalDate getPayPeriodStart() {
+        return payPeriodStart;
+    }
+    public void setPayPeriodStart(LocalDate payPeriodStart) {
+        this.payPeriodStart = payPeriodStart;
+    }
+    public Paycheck getPaycheck() {
+        return paycheck;
+    }
+    public void setPaycheck(Paycheck paycheck) {
+        this.paycheck = paycheck;
+    }
+}
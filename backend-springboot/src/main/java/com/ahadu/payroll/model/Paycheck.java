@@ -5,6 +5,7 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @Document
 public class Paycheck {
@@ -16,6 +17,8 @@ public class Paycheck {
     private LocalDate payPeriodStart;
     private LocalDate payPeriodEnd;
     
+    private BigDecimal baseSalary;
+    private List<PaycheckEarning> earnings; // "Earning" salary components included in gross pay
     private BigDecimal grossPay;
     private BigDecimal commissionAmount;
     private BigDecimal taxDeduction;
@@ -40,6 +43,10 @@ public class Paycheck {
     public void setPayPeriodStart(LocalDate payPeriodStart) { this.payPeriodStart = payPeriodStart; }
     public LocalDate getPayPeriodEnd() { return payPeriodEnd; }
     public void setPayPeriodEnd(LocalDate payPeriodEnd) { this.payPeriodEnd = payPeriodEnd; }
+    public BigDecimal getBaseSalary() { return baseSalary; }
+    public void setBaseSalary(BigDecimal baseSalary) { this.baseSalary = baseSalary; }
+    public List<PaycheckEarning> getEarnings() { return earnings; }
+    public void setEarnings(List<PaycheckEarning> earnings) { this.earnings = earnings; }
     public BigDecimal getGrossPay() { return grossPay; }
     public void setGrossPay(BigDecimal grossPay) { this.grossPay = grossPay; }
     public BigDecimal getCommissionAmount() { return commissionAmount; }
@@ -0,0 +1,27 @@
+package com.ahadu.payroll.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One "Earning" salary component as it was applied to a paycheck, embedded in the paycheck
+ * so the payslip can list it even after the component is changed or removed.
+ */
+public class PaycheckEarning {
+
+    private String name;
+    private BigDecimal amount;
+
+    public PaycheckEarning() {
+    }
+
+    public PaycheckEarning(String name, BigDecimal amount) {
+        this.name = name;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+}
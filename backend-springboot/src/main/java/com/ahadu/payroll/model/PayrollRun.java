@@ -1,6 +1,8 @@
 package com.ahadu.payroll.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
@@ -16,7 +18,7 @@ public class PayrollRun {
     private LocalDate payPeriodStart;
     private LocalDate payPeriodEnd;
     private LocalDateTime processedAt;
-    private String status; // DRAFT, APPROVED, PAID
+    private String status; // GENERATING, DRAFT, APPROVED, PAID
     private String createdById;
     private String approvedById; // New field for the approver's ID
     private LocalDateTime approvedAt; // New field for the approval timestamp
@@ -24,7 +26,13 @@ public class PayrollRun {
     private BigDecimal totalGrossPay;
     private BigDecimal totalDeductions;
     private BigDecimal totalNetPay;
+    private long paycheckCount;
+    private Boolean ytdApplied; // Set to false when the run is paid, true once its year-to-date totals are recorded
 
+    // Paychecks live in their own collection and are loaded in pages by payrollRunId.
+    // This list is never persisted; it is only filled in for the preview response.
+    @Transient
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<Paycheck> paychecks;
 
     // Getters and Setters
@@ -94,6 +102,18 @@ public class PayrollRun {
     public void setTotalNetPay(BigDecimal totalNetPay) {
         this.totalNetPay = totalNetPay;
     }
+    public long getPaycheckCount() {
+        return paycheckCount;
+    }
+    public void setPaycheckCount(long paycheckCount) {
+        this.paycheckCount = paycheckCount;
+    }
+    public Boolean getYtdApplied() {
+        return ytdApplied;
+    }
+    public void setYtdApplied(Boolean ytdApplied) {
+        this.ytdApplied = ytdApplied;
+    }
     public List<Paycheck> getPaychecks() {
         return paychecks;
     }
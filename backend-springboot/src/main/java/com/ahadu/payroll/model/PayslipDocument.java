@@ -0,0 +1,68 @@
+package com.ahadu.payroll.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rendered PDF payslip, stored under the ID of the paycheck it was rendered from.
+ * The content hash doubles as the HTTP ETag of the download.
+ * Stored as a document in the 'payslipDocuments' collection in MongoDB.
+ */
+@Document(collection = "payslipDocuments")
+public class PayslipDocument {
+
+    @Id
+    private String paycheckId;
+    private String payrollRunId;
+    private String employeeId; // Owner of the payslip, checked on download
+    private String fileName;
+    private byte[] content;
+    private String contentHash; // Hex SHA-256 of content
+    private LocalDateTime renderedAt;
+
+    // Getters and Setters
+    public String getPaycheckId() {
+        return paycheckId;
+    }
+    public void setPaycheckId(String paycheckId) {
+        this.paycheckId = paycheckId;
+    }
+    public String getPayrollRunId() {
+        return payrollRunId;
+    }
+    public void setPayrollRunId(String payrollRunId) {
+        this.payrollRunId = payrollRunId;
+    }
+    public String getEmployeeId() {
+        return employeeId;
+    }
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+    public String getFileName() {
+        return fileName;
+    }
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    public byte[] getContent() {
+        return content;
+    }
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+    public String getContentHash() {
+        return contentHash;
+    }
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+    public LocalDateTime getRenderedAt() {
+        return renderedAt;
+    }
+    public void setRenderedAt(LocalDateTime renderedAt) {
+        this.renderedAt = renderedAt;
+    }
+}
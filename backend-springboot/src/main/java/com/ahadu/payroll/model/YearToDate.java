@@ -0,0 +1,106 @@
+package com.ahadu.payroll.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Year-to-date pay totals of one employee for one calendar year, over all PAID paychecks
+ * whose pay period ends in that year. Maintained with $inc by YearToDateRepository when a
+ * run is marked as paid or a paid run is deleted; never written by clients. Each increment is
+ * keyed on its paycheck ID, so applying or reversing a run again changes nothing.
+ * Stored as a document in the 'yearToDate' collection in MongoDB.
+ */
+@Document(collection = "yearToDate")
+public class YearToDate {
+
+    @Id
+    private String id; // "<employeeId>:<year>", see idOf
+    private String employeeId;
+    private int year;
+    private BigDecimal grossPay;
+    private BigDecimal taxDeduction;
+    private BigDecimal providentFundDeduction;
+    private BigDecimal totalDeductions;
+    private BigDecimal netPay;
+    private long paycheckCount;
+    @JsonIgnore
+    private List<String> appliedPaycheckIds; // Paychecks counted in the totals, so re-applying one is a no-op
+    private LocalDateTime updatedAt;
+
+    public static String idOf(String employeeId, int year) {
+        return employeeId + ":" + year;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    public void setId(String id) {
+        this.id = id;
+    }
+    public String getEmployeeId() {
+        return employeeId;
+    }
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+    public int getYear() {
+        return year;
+    }
+    public void setYear(int year) {
+        this.year = year;
+    }
+    public BigDecimal getGrossPay() {
+        return grossPay;
+    }
+    public void setGrossPay(BigDecimal grossPay) {
+        this.grossPay = grossPay;
+    }
+    public BigDecimal getTaxDeduction() {
+        return taxDeduction;
+    }
+    public void setTaxDeduction(BigDecimal taxDeduction) {
+        this.taxDeduction = taxDeduction;
+    }
+    public BigDecimal getProvidentFundDeduction() {
+        return providentFundDeduction;
+    }
+    public void setProvidentFundDeduction(BigDecimal providentFundDeduction) {
+        this.providentFundDeduction = providentFundDeduction;
+    }
+    public BigDecimal getTotalDeductions() {
+        return totalDeductions;
+    }
+    public void setTotalDeductions(BigDecimal totalDeductions) {
+        this.totalDeductions = totalDeductions;
+    }
+    public BigDecimal getNetPay() {
+        return netPay;
+    }
+    public void setNetPay(BigDecimal netPay) {
+        this.netPay = netPay;
+    }
+    public long getPaycheckCount() {
+        return paycheckCount;
+    }
+    public void setPaycheckCount(long paycheckCount) {
+        this.paycheckCount = paycheckCount;
+    }
+    public List<String> getAppliedPaycheckIds() {
+        return appliedPaycheckIds;
+    }
+    public void setAppliedPaycheckIds(List<String> appliedPaycheckIds) {
+        this.appliedPaycheckIds = appliedPaycheckIds;
+    }
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
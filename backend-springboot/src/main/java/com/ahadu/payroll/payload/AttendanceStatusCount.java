@@ -0,0 +1,22 @@
+package com.ahadu.payroll.payload;
+
+import org.springframework.data.annotation.Id;
+
+/**
+ * Number of attendance records in one status on a day, as computed by the attendance
+ * overview aggregation.
+ */
+public class AttendanceStatusCount {
+    @Id
+    private String status; // The $group key
+    private long count;
+    private long onLeaveCount; // Records of employees who are also on approved leave that day
+
+    // Getters and Setters
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+    public long getOnLeaveCount() { return onLeaveCount; }
+    public void setOnLeaveCount(long onLeaveCount) { this.onLeaveCount = onLeaveCount; }
+}
@@ -0,0 +1,34 @@
+package com.ahadu.payroll.payload;
+
+import org.springframework.data.annotation.Id;
+
+import java.math.BigDecimal;
+
+/**
+ * Net pay of one employee in a payroll run and in the run before it, as computed by the
+ * run-over-run variance aggregation. previousNetPay is null for an employee who was not
+ * in the previous run, and currentNetPay is null for one who is no longer paid.
+ */
+public class NetPayVariance {
+    @Id
+    private String employeeId; // The $group key
+    private String employeeUsername;
+    private BigDecimal previousNetPay;
+    private BigDecimal currentNetPay;
+    private BigDecimal change;
+    private BigDecimal changePercent; // null when there is no previous net pay to compare with
+
+    // Getters and Setters
+    public String getEmployeeId() { return employeeId; }
+    public void setEmployeeId(String employeeId) { this.employeeId = employeeId; }
+    public String getEmployeeUsername() { return employeeUsername; }
+    public void setEmployeeUsername(String employeeUsername) { this.employeeUsername = employeeUsername; }
+    public BigDecimal getPreviousNetPay() { return previousNetPay; }
+    public void setPreviousNetPay(BigDecimal previousNetPay) { this.previousNetPay = previousNetPay; }
+    public BigDecimal getCurrentNetPay() { return currentNetPay; }
+    public void setCurrentNetPay(BigDecimal currentNetPay) { this.currentNetPay = currentNetPay; }
+    public BigDecimal getChange() { return change; }
+    public void setChange(BigDecimal change) { this.change = change; }
+    public BigDecimal getChangePercent() { return changePercent; }
+    public void setChangePercent(BigDecimal changePercent) { this.changePercent = changePercent; }
+}
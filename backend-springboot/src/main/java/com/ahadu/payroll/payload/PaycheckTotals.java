@@ -0,0 +1,48 @@
+package com.ahadu.payroll.payload;
+
+import org.springframework.data.annotation.Id;
+
+import java.math.BigDecimal;
+
+/**
+ * Gross, deduction and net totals of a group of paychecks, as computed by the
+ * paycheck totals aggregation. The payroll run ID is null when the group spans several runs.
+ */
+public class PaycheckTotals {
+    @Id
+    private String payrollRunId; // The $group key
+    private BigDecimal grossPay = BigDecimal.ZERO;
+    private BigDecimal totalDeductions = BigDecimal.ZERO;
+    private BigDecimal netPay = BigDecimal.ZERO;
+    private long paycheckCount;
+
+    public PaycheckTotals() {
+    }
+
+    public PaycheckTotals(String payrollRunId) {
+        this.payrollRunId = payrollRunId;
+    }
+
+    /**
+     * Adds another group's totals to this one.
+     */
+    public PaycheckTotals add(PaycheckTotals other) {
+        grossPay = grossPay.add(other.grossPay);
+        totalDeductions = totalDeductions.add(other.totalDeductions);
+        netPay = netPay.add(other.netPay);
+        paycheckCount += other.paycheckCount;
+        return this;
+    }
+
+    // Getters and Setters
+    public String getPayrollRunId() { return payrollRunId; }
+    public void setPayrollRunId(String payrollRunId) { this.payrollRunId = payrollRunId; }
+    public BigDecimal getGrossPay() { return grossPay; }
+    public void setGrossPay(BigDecimal grossPay) { this.grossPay = grossPay; }
+    public BigDecimal getTotalDeductions() { return totalDeductions; }
+    public void setTotalDeductions(BigDecimal totalDeductions) { this.totalDeductions = totalDeductions; }
+    public BigDecimal getNetPay() { return netPay; }
+    public void setNetPay(BigDecimal netPay) { this.netPay = netPay; }
+    public long getPaycheckCount() { return paycheckCount; }
+    public void setPaycheckCount(long paycheckCount) { this.paycheckCount = paycheckCount; }
+}
@@ -0,0 +1,28 @@
+package com.ahadu.payroll.payload;
+
+import com.ahadu.payroll.model.PayrollRun;
+
+import java.time.LocalDateTime;
+
+/**
+ * A payroll preview computed without being saved. The token commits it until it expires.
+ */
+public class PayrollDryRun {
+    private String token;
+    private LocalDateTime expiresAt;
+    private PayrollRun payrollRun; // Not saved yet, so it has no ID
+
+    public PayrollDryRun(String token, LocalDateTime expiresAt, PayrollRun payrollRun) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+        this.payrollRun = payrollRun;
+    }
+
+    // Getters and Setters
+    public String getToken() { return token; }
+    public void setToken(String token) { this.token = token; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    public PayrollRun getPayrollRun() { return payrollRun; }
+    public void setPayrollRun(PayrollRun payrollRun) { this.payrollRun = payrollRun; }
+}
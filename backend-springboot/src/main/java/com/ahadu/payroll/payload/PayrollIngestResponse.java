@@ -0,0 +1,38 @@
+package com.ahadu.payroll.payload;
+
+import com.ahadu.payroll.model.PayrollRun;
+
+import java.util.List;
+
+/**
+ * Result of a streaming payroll preview ingest: the DRAFT run summary plus the rows
+ * that were rejected and why.
+ */
+public class PayrollIngestResponse {
+    private PayrollRun payrollRun;
+    private long rowsRead;
+    private long rowsAccepted;
+    private List<String> errors;
+    private boolean errorsTruncated; // True if more errors occurred than are listed
+
+    public PayrollIngestResponse(PayrollRun payrollRun, long rowsRead, long rowsAccepted, List<String> errors,
+                                 boolean errorsTruncated) {
+        this.payrollRun = payrollRun;
+        this.rowsRead = rowsRead;
+        this.rowsAccepted = rowsAccepted;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    // Getters and Setters
+    public PayrollRun getPayrollRun() { return payrollRun; }
+    public void setPayrollRun(PayrollRun payrollRun) { this.payrollRun = payrollRun; }
+    public long getRowsRead() { return rowsRead; }
+    public void setRowsRead(long rowsRead) { this.rowsRead = rowsRead; }
+    public long getRowsAccepted() { return rowsAccepted; }
+    public void setRowsAccepted(long rowsAccepted) { this.rowsAccepted = rowsAccepted; }
+    public List<String> getErrors() { return errors; }
+    public void setErrors(List<String> errors) { this.errors = errors; }
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+}
@@ -0,0 +1,32 @@
+package com.ahadu.payroll.payload;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Paycheck totals of every payroll run whose pay period starts within a date range,
+ * per run and combined.
+ */
+public class PayrollPeriodTotals {
+    private LocalDate from;
+    private LocalDate to;
+    private List<PaycheckTotals> runs;
+    private PaycheckTotals total;
+
+    public PayrollPeriodTotals(LocalDate from, LocalDate to, List<PaycheckTotals> runs, PaycheckTotals total) {
+        this.from = from;
+        this.to = to;
+        this.runs = runs;
+        this.total = total;
+    }
+
+    // Getters and Setters
+    public LocalDate getFrom() { return from; }
+    public void setFrom(LocalDate from) { this.from = from; }
+    public LocalDate getTo() { return to; }
+    public void setTo(LocalDate to) { this.to = to; }
+    public List<PaycheckTotals> getRuns() { return runs; }
+    public void setRuns(List<PaycheckTotals> runs) { this.runs = runs; }
+    public PaycheckTotals getTotal() { return total; }
+    public void setTotal(PaycheckTotals total) { this.total = total; }
+}
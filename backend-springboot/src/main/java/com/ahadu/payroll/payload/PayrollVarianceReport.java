@@ -0,0 +1,33 @@
+package com.ahadu.payroll.payload;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Employees whose net pay in a payroll run moved by more than a threshold compared with
+ * the previous approved or paid run, largest change first.
+ */
+public class PayrollVarianceReport {
+    private String payrollRunId;
+    private String previousPayrollRunId; // null when there is no earlier run to compare with
+    private BigDecimal thresholdPercent;
+    private List<NetPayVariance> outliers;
+
+    public PayrollVarianceReport(String payrollRunId, String previousPayrollRunId, BigDecimal thresholdPercent,
+                                 List<NetPayVariance> outliers) {
+        this.payrollRunId = payrollRunId;
+        this.previousPayrollRunId = previousPayrollRunId;
+        this.thresholdPercent = thresholdPercent;
+        this.outliers = outliers;
+    }
+
+    // Getters and Setters
+    public String getPayrollRunId() { return payrollRunId; }
+    public void setPayrollRunId(String payrollRunId) { this.payrollRunId = payrollRunId; }
+    public String getPreviousPayrollRunId() { return previousPayrollRunId; }
+    public void setPreviousPayrollRunId(String previousPayrollRunId) { this.previousPayrollRunId = previousPayrollRunId; }
+    public BigDecimal getThresholdPercent() { return thresholdPercent; }
+    public void setThresholdPercent(BigDecimal thresholdPercent) { this.thresholdPercent = thresholdPercent; }
+    public List<NetPayVariance> getOutliers() { return outliers; }
+    public void setOutliers(List<NetPayVariance> outliers) { this.outliers = outliers; }
+}
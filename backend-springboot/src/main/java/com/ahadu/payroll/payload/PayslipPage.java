@@ -0,0 +1,26 @@
+package com.ahadu.payroll.payload;
+
+import com.ahadu.payroll.model.Paycheck;
+
+import java.util.List;
+
+/**
+ * One page of an employee's payslip history, newest pay period first.
+ * Pass {@code nextCursor} back as the {@code cursor} parameter to get the following page;
+ * it is null on the last page.
+ */
+public class PayslipPage {
+    private List<Paycheck> payslips;
+    private String nextCursor;
+
+    public PayslipPage(List<Paycheck> payslips, String nextCursor) {
+        this.payslips = payslips;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Paycheck> getPayslips() { return payslips; }
+    public void setPayslips(List<Paycheck> payslips) { this.payslips = payslips; }
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+}
@@ -2,6 +2,7 @@ package com.ahadu.payroll.repository;
 
 import com.ahadu.payroll.model.Attendance;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -13,7 +14,7 @@ import java.util.Optional;
  * Provides standard CRUD operations for the 'attendance' collection.
  */
 @Repository
-public interface AttendanceRepository extends MongoRepository<Attendance, String> {
+public interface AttendanceRepository extends MongoRepository<Attendance, String>, AttendanceRepositoryCustom {
     List<Attendance> findByEmployeeId(String employeeId);
 
     Optional<Attendance> findByEmployeeIdAndDate(String employeeId, LocalDate date);
@@ -21,4 +22,8 @@ public interface AttendanceRepository extends MongoRepository<Attendance, String
     List<Attendance> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
     List<Attendance> findByEmployeeIdAndDateBetween(String employeeId, LocalDate startDate, LocalDate endDate);
+
+    // Employee IDs only, for every record on the given day
+    @Query(value = "{ 'date': ?0 }", fields = "{ 'employeeId': 1 }")
+    List<Attendance> findEmployeeIdsByDate(LocalDate date);
 }
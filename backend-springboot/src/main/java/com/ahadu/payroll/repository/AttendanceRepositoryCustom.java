@@ -0,0 +1,64 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.payload.AttendanceStatusCount;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Custom operations for Attendance that need MongoTemplate rather than derived queries.
+ */
+public interface AttendanceRepositoryCustom {
+
+    /**
+     * Counts one day's attendance records per status with a single $group over the
+     * (date, status) index, so the cost depends on that day only, not on the history kept.
+     *
+     * @param date                The day to count.
+     * @param statuses            The statuses to count.
+     * @param onLeaveEmployeeIds  Employees on leave that day; their records are also counted
+     *                            separately so callers can avoid counting them twice.
+     * @return One entry per status that has at least one record.
+     */
+    List<AttendanceStatusCount> countByStatusOnDate(LocalDate date, Collection<String> statuses,
+                                                    Collection<String> onLeaveEmployeeIds);
+
+    /**
+     * Creates an "Absent" record for each employee who has no record on the given day, with
+     * unordered bulk upserts on (employeeId, date) of at most 1000 employees each. Existing
+     * records are never changed, so running it again for the same day is harmless.
+     *
+     * @return The number of records created.
+     */
+    int upsertAbsent(Collection<String> employeeIds, LocalDate date);
+
+    /**
+     * Clocks an employee in with one findAndModify upsert on (employeeId, date). The record is
+     * only created if the employee has none for that day; otherwise the existing record is
+     * returned unchanged, so repeated or concurrent clock-ins never create a second row.
+     *
+     * @param attendance The new record, with its ID already assigned.
+     * @return The stored record; its ID differs from the given one if it already existed.
+     */
+    Attendance clockIn(Attendance attendance);
+
+    /**
+     * Applies {@link #clockIn} to many records with one unordered bulk write.
+     *
+     * @return The records that were created; the others already had a record for their day.
+     */
+    List<Attendance> clockInAll(List<Attendance> records);
+
+    /**
+     * Clocks an employee out with one conditional $set that only matches their own record
+     * while it has a clock-in and no clock-out yet.
+     *
+     * @param remarks New remarks, or null to keep the stored ones.
+     * @return The updated record, or empty if no open clock-in matched.
+     */
+    Optional<Attendance> clockOut(String id, String employeeId, LocalTime clockOutTime, String remarks);
+}
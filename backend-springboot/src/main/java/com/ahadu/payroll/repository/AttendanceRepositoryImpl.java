@@ -0,0 +1,123 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.payload.AttendanceStatusCount;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTemplate-backed implementation of {@link AttendanceRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into AttendanceRepository.
+ */
+public class AttendanceRepositoryImpl implements AttendanceRepositoryCustom {
+
+    private static final int UPSERT_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public AttendanceRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<AttendanceStatusCount> countByStatusOnDate(LocalDate date, Collection<String> statuses,
+                                                           Collection<String> onLeaveEmployeeIds) {
+        Document onLeave = new Document("$cond", List.of(
+                new Document("$in", List.of("$employeeId", new ArrayList<>(onLeaveEmployeeIds))), 1, 0));
+        AggregationOperation countPerStatus = context -> new Document("$group", new Document("_id", "$status")
+                .append("count", new Document("$sum", 1))
+                .append("onLeaveCount", new Document("$sum", onLeave)));
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("date").is(date).and("status").in(statuses)),
+                countPerStatus);
+        return mongoTemplate.aggregate(aggregation, Attendance.class, AttendanceStatusCount.class).getMappedResults();
+    }
+
+    @Override
+    public int upsertAbsent(Collection<String> employeeIds, LocalDate date) {
+        List<String> ids = new ArrayList<>(employeeIds);
+        int created = 0;
+        for (int from = 0; from < ids.size(); from += UPSERT_BATCH_SIZE) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+            for (String employeeId : ids.subList(from, Math.min(from + UPSERT_BATCH_SIZE, ids.size()))) {
+                Update update = new Update()
+                        .setOnInsert("employeeId", employeeId)
+                        .setOnInsert("date", date)
+                        .setOnInsert("status", "Absent");
+                bulk.upsert(new Query(Criteria.where("employeeId").is(employeeId).and("date").is(date)), update);
+            }
+            created += bulk.execute().getUpserts().size();
+        }
+        return created;
+    }
+
+    @Override
+    public Attendance clockIn(Attendance attendance) {
+        return mongoTemplate.findAndModify(dayOf(attendance), clockInUpdate(attendance),
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Attendance.class);
+    }
+
+    @Override
+    public List<Attendance> clockInAll(List<Attendance> records) {
+        if (records.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Attendance.class);
+        records.forEach(attendance -> bulk.upsert(dayOf(attendance), clockInUpdate(attendance)));
+        return bulk.execute().getUpserts().stream()
+                .map(upsert -> records.get(upsert.getIndex()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<Attendance> clockOut(String id, String employeeId, LocalTime clockOutTime, String remarks) {
+        Query query = new Query(Criteria.where("_id").is(id)
+                .and("employeeId").is(employeeId)
+                .and("clockInTime").ne(null)
+                .and("clockOutTime").is(null));
+        Update update = new Update().set("clockOutTime", clockOutTime);
+        if (remarks != null) {
+            update.set("remarks", remarks);
+        }
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Attendance.class));
+    }
+
+    private static Query dayOf(Attendance attendance) {
+        return new Query(Criteria.where("employeeId").is(attendance.getEmployeeId()).and("date").is(attendance.getDate()));
+    }
+
+    // Every field is $setOnInsert, so an existing record for the day is left exactly as it is
+    private static Update clockInUpdate(Attendance attendance) {
+        Update update = new Update()
+                .setOnInsert("_id", new ObjectId(attendance.getId()))
+                .setOnInsert("employeeId", attendance.getEmployeeId())
+                .setOnInsert("date", attendance.getDate())
+                .setOnInsert("status", attendance.getStatus());
+        if (attendance.getClockInTime() != null) {
+            update.setOnInsert("clockInTime", attendance.getClockInTime());
+        }
+        if (attendance.getRemarks() != null) {
+            update.setOnInsert("remarks", attendance.getRemarks());
+        }
+        return update;
+    }
+}
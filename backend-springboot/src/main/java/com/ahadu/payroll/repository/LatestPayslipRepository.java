@@ -0,0 +1,16 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.LatestPayslip;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LatestPayslipRepository extends MongoRepository<LatestPayslip, String>, LatestPayslipRepositoryCustom {
+
+    // Only the employee IDs are loaded
+    @Query(value = "{ 'paycheck.payrollRunId': ?0 }", fields = "{ '_id': 1 }")
+    List<LatestPayslip> findEmployeeIdsByPayrollRunId(String payrollRunId);
+}
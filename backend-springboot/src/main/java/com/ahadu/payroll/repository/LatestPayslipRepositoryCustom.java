@@ -0,0 +1,29 @@
+package com.ahadu.payroll.repository;
+
+import java.util.Collection;
+
+/**
+ * Server-side maintenance of the latest-payslip pointers. Both operations run as a single
+ * aggregation that $merges into the pointer collection, so no paycheck passes through the JVM.
+ */
+public interface LatestPayslipRepositoryCustom {
+
+    /**
+     * Points every employee of a run at their APPROVED or PAID paycheck in it, unless the
+     * employee already points at a paycheck with a later pay period. Publishing the same
+     * run again refreshes the snapshots, e.g. after it was marked as paid.
+     */
+    void publishRun(String payrollRunId);
+
+    /**
+     * Recomputes the pointers of the given employees from their remaining APPROVED and PAID
+     * paychecks. Employees with none left lose their pointer.
+     */
+    void rebuildPointers(Collection<String> employeeIds);
+
+    /**
+     * Builds the pointers of every employee from all APPROVED and PAID paychecks. Used to
+     * backfill the pointers of paychecks published before they existed.
+     */
+    void rebuildAllPointers();
+}
@@ -0,0 +1,93 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.LatestPayslip;
+import com.ahadu.payroll.model.Paycheck;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link LatestPayslipRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into LatestPayslipRepository.
+ */
+public class LatestPayslipRepositoryImpl implements LatestPayslipRepositoryCustom {
+
+    private static final List<String> PUBLISHED_STATUSES = List.of("APPROVED", "PAID");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public LatestPayslipRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void publishRun(String payrollRunId) {
+        runIntoPointers(
+                stage("$match", new Document("payrollRunId", payrollRunId)
+                        .append("status", new Document("$in", PUBLISHED_STATUSES))),
+                toPointer(),
+                mergeIntoPointers());
+    }
+
+    @Override
+    public void rebuildPointers(Collection<String> employeeIds) {
+        if (employeeIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.remove(new Query(Criteria.where("_id").in(employeeIds)), LatestPayslip.class);
+        rebuild(new Document("employeeId", new Document("$in", employeeIds)));
+    }
+
+    @Override
+    public void rebuildAllPointers() {
+        rebuild(new Document());
+    }
+
+    private void rebuild(Document employeeFilter) {
+        // The sort matches the (employeeId, payPeriodStart, _id) index, so $first picks each
+        // employee's newest paycheck without an in-memory sort
+        runIntoPointers(
+                stage("$match", employeeFilter.append("status", new Document("$in", PUBLISHED_STATUSES))),
+                stage("$sort", new Document("employeeId", 1).append("payPeriodStart", -1).append("_id", -1)),
+                stage("$group", new Document("_id", "$employeeId").append("paycheck", new Document("$first", "$$ROOT"))),
+                stage("$replaceWith", "$paycheck"),
+                toPointer(),
+                mergeIntoPointers());
+    }
+
+    private void runIntoPointers(AggregationOperation... stages) {
+        mongoTemplate.aggregate(Aggregation.newAggregation(stages), mongoTemplate.getCollectionName(Paycheck.class), Document.class);
+    }
+
+    // { _id: employeeId, payPeriodStart, paycheck: <the whole paycheck> }
+    private static AggregationOperation toPointer() {
+        return stage("$project", new Document("_id", "$employeeId")
+                .append("payPeriodStart", 1)
+                .append("paycheck", "$$ROOT"));
+    }
+
+    // Keeps whichever of the stored and the incoming pointer has the later pay period;
+    // the incoming one wins ties so a re-published run refreshes its own snapshot.
+    private AggregationOperation mergeIntoPointers() {
+        Document keepLatest = new Document("$replaceWith", new Document("$cond", List.of(
+                new Document("$gte", List.of("$$new.payPeriodStart", "$payPeriodStart")),
+                "$$new",
+                "$$ROOT")));
+        return stage("$merge", new Document("into", mongoTemplate.getCollectionName(LatestPayslip.class))
+                .append("on", "_id")
+                .append("whenMatched", List.of(keepLatest))
+                .append("whenNotMatched", "insert"));
+    }
+
+    private static AggregationOperation stage(String operator, Object specification) {
+        return context -> new Document(operator, specification);
+    }
+}
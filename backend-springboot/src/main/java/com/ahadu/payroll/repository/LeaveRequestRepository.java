@@ -2,8 +2,10 @@ package com.ahadu.payroll.repository;
 
 import com.ahadu.payroll.model.LeaveRequest;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -17,4 +19,8 @@ public interface LeaveRequestRepository extends MongoRepository<LeaveRequest, St
     List<LeaveRequest> findByStatus(String status); // e.g., "Pending", "Approved", "Rejected"
 
     List<LeaveRequest> findAllByOrderByRequestDateDesc(); // Get all requests, newest first
+
+    // Employee IDs only, for leaves in the given status that cover the given day
+    @Query(value = "{ 'status': ?0, 'startDate': { $lte: ?1 }, 'endDate': { $gte: ?1 } }", fields = "{ 'employeeId': 1 }")
+    List<LeaveRequest> findEmployeeIdsByStatusOnDate(String status, LocalDate date);
 }
@@ -1,16 +1,34 @@
 package com.ahadu.payroll.repository;
 
 import com.ahadu.payroll.model.Paycheck;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaycheckRepository extends MongoRepository<Paycheck, String> {
+public interface PaycheckRepository extends MongoRepository<Paycheck, String>, PaycheckRepositoryCustom {
     Optional<List<Paycheck>> findByEmployeeIdAndPayrollRunId(String employeeId, String payrollRunId);
+    Optional<Paycheck> findFirstByPayrollRunIdAndEmployeeId(String payrollRunId, String employeeId);
     List<Paycheck> findByPayrollRunId(String payrollRunId);
+    // Backed by a MongoDB cursor; the caller must close the stream
+    Stream<Paycheck> streamByPayrollRunId(String payrollRunId);
+    // IDs only, through a cursor; the caller must close the stream
+    @Query(value = "{ 'payrollRunId': ?0 }", fields = "{ '_id': 1 }")
+    Stream<Paycheck> streamIdsByPayrollRunId(String payrollRunId);
+    Page<Paycheck> findByPayrollRunId(String payrollRunId, Pageable pageable);
     void deleteByPayrollRunId(String payrollRunId);
+
+    // Single updateMany over every paycheck of a run; returns the number of paychecks modified.
+    @Query("{ 'payrollRunId': ?0 }")
+    @Update("{ '$set': { 'status': ?1 } }")
+    long updateStatusByPayrollRunId(String payrollRunId, String status);
+
     List<Paycheck> findByEmployeeId(String employeeId); // New custom query method
 }
\ No newline at end of file
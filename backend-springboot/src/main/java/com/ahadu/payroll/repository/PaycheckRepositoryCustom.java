@@ -0,0 +1,74 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.payload.NetPayVariance;
+import com.ahadu.payroll.payload.PaycheckTotals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom operations for Paycheck that need MongoTemplate rather than derived queries.
+ */
+public interface PaycheckRepositoryCustom {
+
+    /**
+     * Overwrites the pay amounts of a DRAFT paycheck with a single $set, if its gross pay,
+     * deductions and net pay are still those of {@code current}. Identity fields and status
+     * are left as stored, so a concurrent status change is never undone.
+     *
+     * @param current  The paycheck as it was read.
+     * @param paycheck The paycheck carrying the ID and the new amounts.
+     * @return true if the paycheck was found unchanged and updated.
+     */
+    boolean updateAmountsIfUnchanged(Paycheck current, Paycheck paycheck);
+
+    /**
+     * Inserts new paychecks with unordered bulk writes of at most 1000 documents each.
+     * Paychecks without an ID get a client-generated ObjectId first, so callers know every
+     * ID without reading anything back.
+     *
+     * @return The given paychecks, all with IDs.
+     */
+    List<Paycheck> insertUnordered(List<Paycheck> paychecks);
+
+    /**
+     * Sums gross pay, deductions and net pay and counts the paychecks of each of the given
+     * runs with one $group aggregation, so totals never need the paychecks in the JVM.
+     *
+     * @param payrollRunIds The runs to total.
+     * @return One entry per run that has at least one paycheck, in no particular order.
+     */
+    List<PaycheckTotals> sumTotalsByPayrollRunIds(Collection<String> payrollRunIds);
+
+    /**
+     * Reads one page of an employee's paychecks, newest pay period first, with a keyset
+     * range scan over the (employeeId, payPeriodStart, _id) index. Ties on payPeriodStart
+     * are ordered by ID, so the last row of a page identifies where the next page starts.
+     *
+     * @param employeeId  The employee whose paychecks are listed.
+     * @param periodFrom  Earliest payPeriodStart to include, or null for no lower bound.
+     * @param periodUntil payPeriodStart to stop before (exclusive), or null for no upper bound.
+     * @param status      Only return paychecks in this status, or null for all.
+     * @param afterStart  payPeriodStart of the last row of the previous page, or null for the first page.
+     * @param afterId     ID of the last row of the previous page, or null for the first page.
+     * @param limit       Maximum number of paychecks to return.
+     */
+    List<Paycheck> findPayslipPage(String employeeId, LocalDate periodFrom, LocalDate periodUntil, String status,
+                                   LocalDate afterStart, String afterId, int limit);
+
+    /**
+     * Compares each employee's net pay in one run with their net pay in another with one
+     * aggregation: the paychecks of both runs are read through the payrollRunId index and
+     * joined by a $group on employeeId, so neither run is loaded into the JVM.
+     *
+     * @param payrollRunId         The run being checked.
+     * @param previousPayrollRunId The run to compare it with.
+     * @param thresholdPercent     Only return employees whose net pay changed by more than this
+     *                             percentage, or who are in just one of the two runs.
+     * @return The outliers, largest absolute change first.
+     */
+    List<NetPayVariance> findNetPayOutliers(String payrollRunId, String previousPayrollRunId, BigDecimal thresholdPercent);
+}
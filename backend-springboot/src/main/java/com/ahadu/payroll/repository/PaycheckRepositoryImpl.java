@@ -0,0 +1,165 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.payload.NetPayVariance;
+import com.ahadu.payroll.payload.PaycheckTotals;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link PaycheckRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into PaycheckRepository.
+ */
+public class PaycheckRepositoryImpl implements PaycheckRepositoryCustom {
+
+    // Bounds the size of each bulk write message for very large runs
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PaycheckRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean updateAmountsIfUnchanged(Paycheck current, Paycheck paycheck) {
+        Query query = new Query(Criteria.where("_id").is(paycheck.getId())
+                .and("status").is("DRAFT")
+                .and("grossPay").is(current.getGrossPay())
+                .and("totalDeductions").is(current.getTotalDeductions())
+                .and("netPay").is(current.getNetPay()));
+        Update update = new Update()
+                .set("baseSalary", paycheck.getBaseSalary())
+                .set("earnings", paycheck.getEarnings())
+                .set("grossPay", paycheck.getGrossPay())
+                .set("commissionAmount", paycheck.getCommissionAmount())
+                .set("taxDeduction", paycheck.getTaxDeduction())
+                .set("providentFundDeduction", paycheck.getProvidentFundDeduction())
+                .set("latePenaltyDeduction", paycheck.getLatePenaltyDeduction())
+                .set("absentPenaltyDeduction", paycheck.getAbsentPenaltyDeduction())
+                .set("totalDeductions", paycheck.getTotalDeductions())
+                .set("netPay", paycheck.getNetPay());
+        return mongoTemplate.updateFirst(query, update, Paycheck.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public List<Paycheck> insertUnordered(List<Paycheck> paychecks) {
+        for (int from = 0; from < paychecks.size(); from += INSERT_BATCH_SIZE) {
+            List<Paycheck> batch = paychecks.subList(from, Math.min(from + INSERT_BATCH_SIZE, paychecks.size()));
+            batch.stream()
+                    .filter(paycheck -> paycheck.getId() == null)
+                    .forEach(paycheck -> paycheck.setId(new ObjectId().toHexString()));
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Paycheck.class)
+                    .insert(batch)
+                    .execute();
+        }
+        return paychecks;
+    }
+
+    @Override
+    public List<PaycheckTotals> sumTotalsByPayrollRunIds(Collection<String> payrollRunIds) {
+        // $toDecimal accepts amounts stored as strings as well as numbers
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("payrollRunId").in(payrollRunIds)),
+                Aggregation.group("payrollRunId")
+                        .sum(ConvertOperators.valueOf("grossPay").convertToDecimal()).as("grossPay")
+                        .sum(ConvertOperators.valueOf("totalDeductions").convertToDecimal()).as("totalDeductions")
+                        .sum(ConvertOperators.valueOf("netPay").convertToDecimal()).as("netPay")
+                        .count().as("paycheckCount"));
+        return mongoTemplate.aggregate(aggregation, Paycheck.class, PaycheckTotals.class).getMappedResults();
+    }
+
+    @Override
+    public List<Paycheck> findPayslipPage(String employeeId, LocalDate periodFrom, LocalDate periodUntil, String status,
+                                          LocalDate afterStart, String afterId, int limit) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("employeeId").is(employeeId));
+        if (periodFrom != null || periodUntil != null) {
+            Criteria period = Criteria.where("payPeriodStart");
+            if (periodFrom != null) {
+                period = period.gte(periodFrom);
+            }
+            if (periodUntil != null) {
+                period = period.lt(periodUntil);
+            }
+            criteria.add(period);
+        }
+        if (status != null) {
+            criteria.add(Criteria.where("status").is(status));
+        }
+        if (afterStart != null) {
+            // Rows strictly after the cursor in (payPeriodStart desc, _id desc) order
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("payPeriodStart").lt(afterStart),
+                    new Criteria().andOperator(Criteria.where("payPeriodStart").is(afterStart), Criteria.where("_id").lt(afterId))));
+        }
+        Query query = new Query(new Criteria().andOperator(criteria))
+                .with(Sort.by(Sort.Direction.DESC, "payPeriodStart", "_id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Paycheck.class);
+    }
+
+    @Override
+    public List<NetPayVariance> findNetPayOutliers(String payrollRunId, String previousPayrollRunId, BigDecimal thresholdPercent) {
+        Decimal128 above = new Decimal128(thresholdPercent);
+        Decimal128 below = new Decimal128(thresholdPercent.negate());
+        Aggregation aggregation = Aggregation.newAggregation(
+                stage("$match", new Document("payrollRunId", new Document("$in", List.of(payrollRunId, previousPayrollRunId)))),
+                // One row per employee with the net pay of each run; $max skips the other run's null
+                stage("$group", new Document("_id", "$employeeId")
+                        .append("employeeUsername", new Document("$first", "$employeeUsername"))
+                        .append("previousNetPay", new Document("$max", netPayOf(previousPayrollRunId)))
+                        .append("currentNetPay", new Document("$max", netPayOf(payrollRunId)))),
+                stage("$addFields", new Document("change", new Document("$subtract", List.of(
+                        new Document("$ifNull", List.of("$currentNetPay", 0)),
+                        new Document("$ifNull", List.of("$previousNetPay", 0)))))),
+                stage("$addFields", new Document("changePercent", new Document("$cond", Arrays.asList(
+                        new Document("$gt", List.of("$previousNetPay", 0)),
+                        new Document("$round", List.of(
+                                new Document("$multiply", List.of(new Document("$divide", List.of("$change", "$previousNetPay")), 100)),
+                                2)),
+                        null)))),
+                // Joiners, leavers, moves from zero and moves beyond the threshold either way
+                stage("$match", new Document("$or", List.of(
+                        new Document("previousNetPay", null),
+                        new Document("currentNetPay", null),
+                        new Document("changePercent", null).append("change", new Document("$ne", 0)),
+                        new Document("changePercent", new Document("$gt", above)),
+                        new Document("changePercent", new Document("$lt", below))))),
+                stage("$addFields", new Document("absoluteChange", new Document("$abs", "$change"))),
+                stage("$sort", new Document("absoluteChange", -1).append("_id", 1)));
+        return mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Paycheck.class), NetPayVariance.class)
+                .getMappedResults();
+    }
+
+    // The paycheck's net pay if it belongs to the given run, otherwise null
+    private static Document netPayOf(String payrollRunId) {
+        return new Document("$cond", Arrays.asList(
+                new Document("$eq", List.of("$payrollRunId", payrollRunId)),
+                new Document("$toDecimal", "$netPay"),
+                null));
+    }
+
+    private static AggregationOperation stage(String operator, Object specification) {
+        return context -> new Document(operator, specification);
+    }
+}
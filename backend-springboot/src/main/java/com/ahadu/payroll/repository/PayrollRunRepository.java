@@ -1,8 +1,36 @@
 package com.ahadu.payroll.repository;
 
 import com.ahadu.payroll.model.PayrollRun;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface PayrollRunRepository extends MongoRepository<PayrollRun, String> {}
\ No newline at end of file
+public interface PayrollRunRepository extends MongoRepository<PayrollRun, String>, PayrollRunRepositoryCustom {
+
+    // Summary fields only; a legacy embedded 'paychecks' array is never read
+    String SUMMARY_FIELDS = "{ 'paychecks': 0 }";
+
+    @Query(value = "{}", fields = SUMMARY_FIELDS)
+    Page<PayrollRun> findSummaries(Pageable pageable);
+
+    @Query(value = "{ 'status': ?0 }", fields = SUMMARY_FIELDS)
+    Page<PayrollRun> findSummariesByStatus(String status, Pageable pageable);
+
+    @Query(value = "{ '_id': ?0 }", fields = SUMMARY_FIELDS)
+    Optional<PayrollRun> findSummaryById(String id);
+
+    // Only the IDs are loaded; used to pick the runs of a period before aggregating their paychecks.
+    @Query(value = "{ 'payPeriodStart': { $gte: ?0, $lte: ?1 } }", fields = "{ '_id': 1 }")
+    List<PayrollRun> findIdsByPayPeriodStartBetween(LocalDate from, LocalDate to);
+
+    // PAID runs whose year-to-date totals were not fully recorded, IDs only
+    @Query(value = "{ 'status': 'PAID', 'ytdApplied': false }", fields = "{ '_id': 1 }")
+    List<PayrollRun> findIdsOfPaidRunsWithoutYearToDate();
+}
@@ -0,0 +1,46 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.PaycheckTotals;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * Custom operations for PayrollRun that need MongoTemplate rather than derived queries.
+ */
+public interface PayrollRunRepositoryCustom {
+
+    /**
+     * Atomically applies an update to a payroll run in a single findAndModify, but only
+     * while the run is still in {@code status} and matches the extra criteria. Used for
+     * status transitions, so two concurrent callers can never both win the transition,
+     * and for compare-and-set updates of the run totals.
+     *
+     * @param id        The ID of the payroll run.
+     * @param status    The status the run must currently be in.
+     * @param condition Additional criteria the run must match, or null for none.
+     * @param update    The fields to set.
+     * @return The updated run, or empty if no run matched.
+     */
+    Optional<PayrollRun> updateIfStatus(String id, String status, Criteria condition, Update update);
+
+    /**
+     * Overwrites the totals and paycheck count of a payroll run, leaving every other field
+     * as stored.
+     *
+     * @return The updated run, or empty if it does not exist.
+     */
+    Optional<PayrollRun> updateTotals(String id, PaycheckTotals totals);
+
+    /**
+     * Finds the summary of the most recent run in one of the given statuses whose pay period
+     * starts before {@code payPeriodStart}, using the (status, payPeriodStart) index.
+     *
+     * @return The run without any legacy embedded paychecks, or empty if there is none.
+     */
+    Optional<PayrollRun> findPreviousSummary(LocalDate payPeriodStart, Collection<String> statuses);
+}
@@ -0,0 +1,61 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.PaycheckTotals;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * MongoTemplate-backed implementation of {@link PayrollRunRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into PayrollRunRepository.
+ */
+public class PayrollRunRepositoryImpl implements PayrollRunRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PayrollRunRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<PayrollRun> updateIfStatus(String id, String status, Criteria condition, Update update) {
+        Criteria criteria = Criteria.where("_id").is(id).and("status").is(status);
+        if (condition != null) {
+            criteria = new Criteria().andOperator(criteria, condition);
+        }
+        PayrollRun updated = mongoTemplate.findAndModify(new Query(criteria), update,
+                FindAndModifyOptions.options().returnNew(true), PayrollRun.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<PayrollRun> updateTotals(String id, PaycheckTotals totals) {
+        Update update = new Update()
+                .set("totalGrossPay", totals.getGrossPay().setScale(2, RoundingMode.HALF_UP))
+                .set("totalDeductions", totals.getTotalDeductions().setScale(2, RoundingMode.HALF_UP))
+                .set("totalNetPay", totals.getNetPay().setScale(2, RoundingMode.HALF_UP))
+                .set("paycheckCount", totals.getPaycheckCount());
+        PayrollRun updated = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(id)), update,
+                FindAndModifyOptions.options().returnNew(true), PayrollRun.class);
+        return Optional.ofNullable(updated);
+    }
+
+    @Override
+    public Optional<PayrollRun> findPreviousSummary(LocalDate payPeriodStart, Collection<String> statuses) {
+        Query query = new Query(Criteria.where("status").in(statuses).and("payPeriodStart").lt(payPeriodStart))
+                .with(Sort.by(Sort.Direction.DESC, "payPeriodStart", "_id"));
+        query.fields().exclude("paychecks");
+        return Optional.ofNullable(mongoTemplate.findOne(query, PayrollRun.class));
+    }
+}
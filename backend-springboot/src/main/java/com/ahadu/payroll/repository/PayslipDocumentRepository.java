@@ -0,0 +1,22 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.PayslipDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface PayslipDocumentRepository extends MongoRepository<PayslipDocument, String>, PayslipDocumentRepositoryCustom {
+
+    // Only the IDs are loaded, to skip paychecks that are already rendered
+    @Query(value = "{ 'payrollRunId': ?0 }", fields = "{ '_id': 1 }")
+    List<PayslipDocument> findIdsByPayrollRunId(String payrollRunId);
+
+    // Backed by a MongoDB cursor; the caller must close the stream
+    Stream<PayslipDocument> streamByPayrollRunId(String payrollRunId);
+
+    void deleteByPayrollRunId(String payrollRunId);
+}
@@ -0,0 +1,26 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.PayslipDocument;
+
+import java.util.List;
+
+/**
+ * Writes rendered payslips without ever replacing one that is already stored, so a payslip
+ * keeps the same bytes, and therefore the same ETag, once it has been served.
+ */
+public interface PayslipDocumentRepositoryCustom {
+
+    /**
+     * Inserts the payslip unless one is already stored for the paycheck.
+     *
+     * @return The stored payslip: the given one if it was inserted, otherwise the existing one.
+     */
+    PayslipDocument insertIfAbsent(PayslipDocument document);
+
+    /**
+     * Inserts the payslips in one unordered bulk write, skipping paychecks that already have one.
+     *
+     * @return The number of payslips inserted.
+     */
+    int insertAllIfAbsent(List<PayslipDocument> documents);
+}
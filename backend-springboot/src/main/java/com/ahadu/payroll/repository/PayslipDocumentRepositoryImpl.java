@@ -0,0 +1,59 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.PayslipDocument;
+import com.mongodb.ErrorCategory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link PayslipDocumentRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into PayslipDocumentRepository.
+ * The paycheck ID is the document ID, so the _id index turns a second insert into a
+ * duplicate key error instead of a replacement.
+ */
+public class PayslipDocumentRepositoryImpl implements PayslipDocumentRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public PayslipDocumentRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public PayslipDocument insertIfAbsent(PayslipDocument document) {
+        try {
+            return mongoTemplate.insert(document);
+        } catch (DuplicateKeyException e) {
+            PayslipDocument stored = mongoTemplate.findById(document.getPaycheckId(), PayslipDocument.class);
+            // Deleted again in between; serve what was rendered
+            return stored != null ? stored : document;
+        }
+    }
+
+    @Override
+    public int insertAllIfAbsent(List<PayslipDocument> documents) {
+        if (documents.isEmpty()) {
+            return 0;
+        }
+        try {
+            return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PayslipDocument.class)
+                    .insert(documents)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            // Unordered, so every other document was still inserted; only duplicates are expected
+            boolean onlyDuplicates = e.getErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+            return e.getResult().getInsertedCount();
+        }
+    }
+}
@@ -2,12 +2,30 @@ package com.ahadu.payroll.repository;
 
 import com.ahadu.payroll.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends MongoRepository<User, String> {
+    String PAYROLL_FIELDS = "{ 'username': 1, 'baseSalary': 1, 'taxPercentage': 1, 'commissionPercentage': 1, "
+            + "'providentFundPercentage': 1, 'status': 1 }";
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    // Payroll lookups only need the username and salary fields, so the rest of the document is projected away.
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = PAYROLL_FIELDS)
+    List<User> findPayrollFieldsByIdIn(Collection<String> ids);
+
+    @Query(value = "{ 'status': ?0 }", fields = PAYROLL_FIELDS)
+    List<User> findPayrollFieldsByStatus(String status);
+
+    long countByStatus(String status);
+
+    @Query(value = "{ 'status': ?0 }", fields = "{ '_id': 1 }")
+    List<User> findIdsByStatus(String status);
 }
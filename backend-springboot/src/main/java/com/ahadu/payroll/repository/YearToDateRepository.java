@@ -0,0 +1,8 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.YearToDate;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface YearToDateRepository extends MongoRepository<YearToDate, String>, YearToDateRepositoryCustom {}
@@ -0,0 +1,20 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Paycheck;
+
+import java.util.List;
+
+/**
+ * Atomic maintenance of the year-to-date accumulators.
+ */
+public interface YearToDateRepositoryCustom {
+
+    /**
+     * Adds (sign 1) or subtracts (sign -1) the amounts of the paychecks to the accumulators
+     * of their employees and pay years, with unordered bulk writes of conditional $inc
+     * updates. Each paycheck counts towards the year its pay period ends in. A paycheck is
+     * only added if it is not counted yet and only subtracted if it is, so a batch that failed
+     * part way can simply be applied again.
+     */
+    void accumulate(List<Paycheck> paychecks, int sign);
+}
@@ -0,0 +1,74 @@
+package com.ahadu.payroll.repository;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.YearToDate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * MongoTemplate-backed implementation of {@link YearToDateRepositoryCustom}.
+ * Spring Data picks it up by the "Impl" suffix and merges it into YearToDateRepository.
+ */
+public class YearToDateRepositoryImpl implements YearToDateRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Autowired
+    public YearToDateRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void accumulate(List<Paycheck> paychecks, int sign) {
+        if (paychecks.isEmpty()) {
+            return;
+        }
+        BigDecimal factor = BigDecimal.valueOf(sign);
+        LocalDateTime now = LocalDateTime.now();
+        // The accumulators are created first, so the conditional updates below never need to
+        // upsert; an upsert whose applied-paycheck condition fails would hit the _id index.
+        if (sign > 0) {
+            BulkOperations create = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, YearToDate.class);
+            for (Paycheck paycheck : paychecks) {
+                int year = paycheck.getPayPeriodEnd().getYear();
+                create.upsert(new Query(Criteria.where("_id").is(YearToDate.idOf(paycheck.getEmployeeId(), year))),
+                        new Update().setOnInsert("employeeId", paycheck.getEmployeeId()).setOnInsert("year", year));
+            }
+            create.execute();
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, YearToDate.class);
+        for (Paycheck paycheck : paychecks) {
+            int year = paycheck.getPayPeriodEnd().getYear();
+            Criteria criteria = Criteria.where("_id").is(YearToDate.idOf(paycheck.getEmployeeId(), year));
+            Update update = new Update()
+                    .inc("grossPay", amount(paycheck.getGrossPay(), factor))
+                    .inc("taxDeduction", amount(paycheck.getTaxDeduction(), factor))
+                    .inc("providentFundDeduction", amount(paycheck.getProvidentFundDeduction(), factor))
+                    .inc("totalDeductions", amount(paycheck.getTotalDeductions(), factor))
+                    .inc("netPay", amount(paycheck.getNetPay(), factor))
+                    .inc("paycheckCount", sign)
+                    .set("updatedAt", now);
+            if (sign > 0) {
+                criteria.and("appliedPaycheckIds").ne(paycheck.getId());
+                update.addToSet("appliedPaycheckIds", paycheck.getId());
+            } else {
+                criteria.and("appliedPaycheckIds").is(paycheck.getId());
+                update.pull("appliedPaycheckIds", paycheck.getId());
+            }
+            bulk.updateOne(new Query(criteria), update);
+        }
+        bulk.execute();
+    }
+
+    private static BigDecimal amount(BigDecimal value, BigDecimal factor) {
+        return value != null ? value.multiply(factor) : BigDecimal.ZERO;
+    }
+}
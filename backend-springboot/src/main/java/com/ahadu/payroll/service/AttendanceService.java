@@ -7,10 +7,14 @@ import com.ahadu.payroll.payload.AttendanceOverviewResponse;
 import com.ahadu.payroll.repository.AttendanceRepository;
 import com.ahadu.payroll.repository.LeaveRequestRepository;
 import com.ahadu.payroll.repository.UserRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -20,20 +24,47 @@ import java.util.stream.Collectors;
 @Service
 public class AttendanceService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceService.class);
+
+    // Statuses as clock-in stores them; the overview queries and counters match them exactly
+    private static final List<String> STATUSES = List.of("Present", "Late", "Absent");
+
     private final AttendanceRepository attendanceRepository;
     private final UserRepository userRepository;
     private final LeaveRequestRepository leaveRequestRepository;
+    private final LiveAttendanceCounters liveAttendanceCounters;
 
     @Autowired
     public AttendanceService(AttendanceRepository attendanceRepository, UserRepository userRepository,
-                             LeaveRequestRepository leaveRequestRepository) {
+                             LeaveRequestRepository leaveRequestRepository, LiveAttendanceCounters liveAttendanceCounters) {
         this.attendanceRepository = attendanceRepository;
         this.userRepository = userRepository;
         this.leaveRequestRepository = leaveRequestRepository;
+        this.liveAttendanceCounters = liveAttendanceCounters;
+    }
+
+    /**
+     * Clocks an employee in with one atomic upsert. If the employee already has a record for
+     * the day, that record is returned unchanged instead of creating a duplicate.
+     *
+     * @return The stored record. It has the ID assigned to {@code attendance} only if it was created here.
+     */
+    public Attendance clockIn(Attendance attendance) {
+        attendance.setId(new ObjectId().toHexString());
+        Attendance storedAttendance = attendanceRepository.clockIn(attendance);
+        if (storedAttendance.getId().equals(attendance.getId())) {
+            liveAttendanceCounters.recordStatusChange(storedAttendance.getEmployeeId(), storedAttendance.getDate(), null, storedAttendance.getStatus());
+        }
+        return storedAttendance;
     }
 
-    public Attendance saveAttendance(Attendance attendance) {
-        return attendanceRepository.save(attendance);
+    /**
+     * Clocks an employee out of one of their own records with a single conditional update.
+     *
+     * @return The updated record, or empty if it is not theirs, has no clock-in, or was already clocked out.
+     */
+    public Optional<Attendance> clockOut(String id, String employeeId, LocalTime clockOutTime, String remarks) {
+        return attendanceRepository.clockOut(id, employeeId, clockOutTime, remarks);
     }
 
     public List<Attendance> getAllAttendanceWithUsernames() {
@@ -74,102 +105,65 @@ public class AttendanceService {
 
     public Optional<Attendance> updateAttendance(String id, Attendance updatedAttendance) {
         return attendanceRepository.findById(id).map(existingAttendance -> {
+            String previousStatus = existingAttendance.getStatus();
             existingAttendance.setClockInTime(updatedAttendance.getClockInTime());
             existingAttendance.setClockOutTime(updatedAttendance.getClockOutTime());
-            existingAttendance.setStatus(updatedAttendance.getStatus());
+            existingAttendance.setStatus(normalizeStatus(updatedAttendance.getStatus()));
             existingAttendance.setRemarks(updatedAttendance.getRemarks());
-            return attendanceRepository.save(existingAttendance);
+            Attendance savedAttendance = attendanceRepository.save(existingAttendance);
+            liveAttendanceCounters.recordStatusChange(savedAttendance.getEmployeeId(), savedAttendance.getDate(),
+                    previousStatus, savedAttendance.getStatus());
+            return savedAttendance;
         });
     }
 
+    private static String normalizeStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        return STATUSES.stream().filter(known -> known.equalsIgnoreCase(status.trim())).findFirst().orElse(status);
+    }
+
     public void deleteAttendance(String id) {
-        attendanceRepository.deleteById(id);
+        attendanceRepository.findById(id).ifPresent(attendance -> {
+            attendanceRepository.deleteById(id);
+            liveAttendanceCounters.recordStatusChange(attendance.getEmployeeId(), attendance.getDate(), attendance.getStatus(), null);
+        });
     }
 
     /**
-     * CORRECTED METHOD: Calculates and returns aggregated attendance overview statistics for today.
-     * This version fixes the logical issue by correctly querying for today's records.
+     * Today's attendance overview, read from the live counters without querying MongoDB.
      */
     public AttendanceOverviewResponse getAttendanceOverview() {
-        LocalDate today = LocalDate.now();
-
-        List<User> allEmployees = userRepository.findAll().stream()
-                .filter(user -> "Active".equalsIgnoreCase(user.getEmployeeStatus()))
-                .collect(Collectors.toList());
-        
-        long totalEmployees = allEmployees.size();
+        return liveAttendanceCounters.overview();
+    }
 
-        Set<String> onLeaveEmployeeIds = leaveRequestRepository.findByStatus("Approved").stream()
-                .filter(leaveRequest -> !leaveRequest.getStartDate().isAfter(today) && !leaveRequest.getEndDate().isBefore(today))
+    private Set<String> findEmployeeIdsOnLeave(LocalDate date) {
+        return leaveRequestRepository.findEmployeeIdsByStatusOnDate("Approved", date).stream()
                 .map(LeaveRequest::getEmployeeId)
                 .collect(Collectors.toSet());
-        
-        // CORRECTION: The query is changed to a simple find-by-date and filtered
-        // to avoid any potential issues with the `Between` query on a specific day.
-        List<Attendance> allAttendanceRecords = attendanceRepository.findAll();
-        List<Attendance> todayAttendanceRecords = allAttendanceRecords.stream()
-                .filter(a -> a.getDate() != null && a.getDate().isEqual(today))
-                .collect(Collectors.toList());
-
-        long presentToday = todayAttendanceRecords.stream()
-                .filter(attendance -> "Present".equalsIgnoreCase(attendance.getStatus()))
-                .count();
-
-        long lateToday = todayAttendanceRecords.stream()
-                .filter(attendance -> "Late".equalsIgnoreCase(attendance.getStatus()))
-                .count();
-
-        long onLeaveToday = onLeaveEmployeeIds.size();
-
-        Set<String> presentLateAndOnLeaveIds = todayAttendanceRecords.stream()
-                .filter(attendance -> "Present".equalsIgnoreCase(attendance.getStatus()) || "Late".equalsIgnoreCase(attendance.getStatus()))
-                .map(Attendance::getEmployeeId)
-                .collect(Collectors.toSet());
-        presentLateAndOnLeaveIds.addAll(onLeaveEmployeeIds);
-        long absentToday = totalEmployees - presentLateAndOnLeaveIds.size();
-
-        if (absentToday < 0) {
-            absentToday = 0;
-        }
-
-        return new AttendanceOverviewResponse(totalEmployees, presentToday, lateToday, onLeaveToday, absentToday);
     }
 
+    /**
+     * Records every active employee who neither has an attendance record today nor is on
+     * approved leave as "Absent". Uses three indexed ID-only queries (today's attendance,
+     * active employees, approved leave covering today) and chunked bulk upserts on
+     * (employeeId, date), so it can safely run again for the same day.
+     */
     public void createAbsentRecordsForToday() {
         LocalDate today = LocalDate.now();
-        List<String> allEmployeeIds = userRepository.findAll().stream()
-                .filter(user -> "Active".equalsIgnoreCase(user.getEmployeeStatus()))
-                .map(User::getId)
-                .collect(Collectors.toList());
 
-        List<Attendance> allAttendanceRecords = attendanceRepository.findAll();
-        Set<String> presentOrLateEmployeeIds = allAttendanceRecords.stream()
-                .filter(a -> a.getDate() != null && a.getDate().isEqual(today))
+        Set<String> accountedFor = attendanceRepository.findEmployeeIdsByDate(today).stream()
                 .map(Attendance::getEmployeeId)
                 .collect(Collectors.toSet());
+        accountedFor.addAll(findEmployeeIdsOnLeave(today));
 
-        leaveRequestRepository.findByStatus("Approved").stream()
-                .filter(leaveRequest -> !leaveRequest.getStartDate().isAfter(today) && !leaveRequest.getEndDate().isBefore(today))
-                .map(LeaveRequest::getEmployeeId)
-                .forEach(presentOrLateEmployeeIds::add);
-
-        List<String> absentEmployeeIds = allEmployeeIds.stream()
-                .filter(employeeId -> !presentOrLateEmployeeIds.contains(employeeId))
-                .collect(Collectors.toList());
-
-        List<Attendance> absentRecords = absentEmployeeIds.stream()
-                .map(employeeId -> {
-                    Attendance absentRecord = new Attendance();
-                    absentRecord.setEmployeeId(employeeId);
-                    absentRecord.setDate(today);
-                    absentRecord.setStatus("Absent");
-                    return absentRecord;
-                })
+        List<String> absentEmployeeIds = userRepository.findIdsByStatus("Active").stream()
+                .map(User::getId)
+                .filter(employeeId -> !accountedFor.contains(employeeId))
                 .collect(Collectors.toList());
 
-        if (!absentRecords.isEmpty()) {
-            attendanceRepository.saveAll(absentRecords);
-            System.out.println("Created " + absentRecords.size() + " absent records for today.");
-        }
+        int created = attendanceRepository.upsertAbsent(absentEmployeeIds, today);
+        logger.info("Created {} absent records for {}.", created, today);
     }
 }
\ No newline at end of file
@@ -0,0 +1,281 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Attendance;
+import com.ahadu.payroll.repository.AttendanceRepository;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind for clock-ins (payroll.attendance.write-behind.enabled). Instead of one
+ * write per request, clock-ins are acknowledged once they are in a bounded in-memory queue, and
+ * a single writer thread flushes them to MongoDB as unordered bulk upserts whenever a batch is
+ * full or the flush interval has passed, whichever comes first.
+ *
+ * When the queue is full, callers wait up to the offer timeout for space and are then turned
+ * away, so a slow database pushes back on clients instead of growing the heap. On shutdown the
+ * queue stops taking new clock-ins after the web server has stopped, and is drained before the
+ * MongoDB client is closed.
+ *
+ * A repeated clock-in for a day that is still queued, or already stored, returns that record
+ * instead of queueing another one, so the ID handed to the client is always the one that is kept.
+ * Clocking out of a record that is still queued writes it first (see {@link #flushPending}).
+ *
+ * A batch that cannot be written is retried, with a growing pause, until it succeeds. Meanwhile
+ * the queue fills up and new clock-ins are turned away, so acknowledged clock-ins are not dropped
+ * while the application runs. During shutdown a failing batch is given up after
+ * {@value #MAX_ATTEMPTS} attempts. Acknowledged clock-ins that are still queued are lost if the
+ * process dies without a graceful shutdown; the nightly absent-record job then treats those
+ * employees as absent.
+ */
+@Component
+public class AttendanceWriteBehind implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceWriteBehind.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+    private static final int MAX_BACKOFF_STEPS = 10;
+    private static final long DRAIN_TIMEOUT_MILLIS = 60_000;
+
+    private final AttendanceRepository attendanceRepository;
+    private final LiveAttendanceCounters liveAttendanceCounters;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+    private final BlockingQueue<Attendance> queue;
+    // Queued clock-ins by employee and day, until their batch has been written
+    private final Map<String, Attendance> pending = new ConcurrentHashMap<>();
+    // The same clock-ins by ID, for clocking out of one that is still queued
+    private final Map<String, Attendance> pendingById = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public AttendanceWriteBehind(AttendanceRepository attendanceRepository, LiveAttendanceCounters liveAttendanceCounters,
+                                 @Value("${payroll.attendance.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${payroll.attendance.write-behind.queue-capacity:10000}") int queueCapacity,
+                                 @Value("${payroll.attendance.write-behind.batch-size:500}") int batchSize,
+                                 @Value("${payroll.attendance.write-behind.flush-interval-ms:200}") long flushIntervalMillis,
+                                 @Value("${payroll.attendance.write-behind.offer-timeout-ms:2000}") long offerTimeoutMillis) {
+        this.attendanceRepository = attendanceRepository;
+        this.liveAttendanceCounters = liveAttendanceCounters;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a clock-in for the next bulk write. The record gets its ID here,
+     * so the caller can return it before it is written.
+     *
+     * @return {@code attendance} if it was queued, otherwise the record the employee already has
+     *         for the day, queued or stored.
+     * @throws IllegalStateException if the queue stayed full for the whole offer timeout, or
+     *                               the application is shutting down.
+     */
+    public Attendance enqueue(Attendance attendance) {
+        if (!running) {
+            throw new IllegalStateException("Clock-ins are not being accepted right now. Please try again.");
+        }
+        attendance.setId(new ObjectId().toHexString());
+        String day = dayKey(attendance);
+        Attendance queued = pending.putIfAbsent(day, attendance);
+        if (queued != null) {
+            return queued;
+        }
+        pendingById.put(attendance.getId(), attendance);
+        // Read after claiming the day: a clock-in written before the claim is found here, and
+        // any later one for the same day finds this record in pending
+        Optional<Attendance> stored = attendanceRepository.findByEmployeeIdAndDate(attendance.getEmployeeId(), attendance.getDate());
+        if (stored.isPresent()) {
+            release(attendance);
+            return stored.get();
+        }
+        try {
+            if (!queue.offer(attendance, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                release(attendance);
+                throw new IllegalStateException("Too many clock-ins are waiting to be saved. Please try again.");
+            }
+        } catch (InterruptedException e) {
+            release(attendance);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing the clock-in.");
+        }
+        return attendance;
+    }
+
+    /**
+     * Writes an employee's clock-in now if it is still queued, so it can be clocked out right
+     * away. Clock-ins are upserts on (employeeId, date), so when its batch is written later the
+     * record only matches and is neither duplicated nor counted twice.
+     */
+    public void flushPending(String id, String employeeId) {
+        Attendance queued = pendingById.get(id);
+        if (queued == null || !queued.getEmployeeId().equals(employeeId)) {
+            return;
+        }
+        Attendance stored = attendanceRepository.clockIn(queued);
+        if (stored.getId().equals(queued.getId())) {
+            countCreated(stored);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::writeBatches, "attendance-write-behind");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(DRAIN_TIMEOUT_MILLIS);
+            if (!writer.isAlive()) {
+                // Clock-ins queued after the writer last found the queue empty
+                drainRemaining();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            logger.error("{} queued clock-ins were not saved before shutdown.", queue.size());
+        }
+        writer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return writer != null;
+    }
+
+    // Stops after both web server lifecycles (graceful shutdown at DEFAULT_PHASE - 1024 and
+    // stopping the server at DEFAULT_PHASE - 2048), so no request can still be adding to the
+    // queue while it is drained.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void writeBatches() {
+        List<Attendance> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Attendance first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    Attendance next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Keep draining; stop() ends the loop by clearing running
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void drainRemaining() throws InterruptedException {
+        List<Attendance> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<Attendance> batch) throws InterruptedException {
+        try {
+            writeWithRetries(batch);
+        } finally {
+            batch.forEach(this::release);
+        }
+    }
+
+    private void writeWithRetries(List<Attendance> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Clock-ins are upserts on (employeeId, date), so retrying a batch that was
+                // partly written, or a repeated clock-in, never creates a second record.
+                attendanceRepository.clockInAll(batch).forEach(this::countCreated);
+                return;
+            } catch (BulkOperationException e) {
+                // The records inserted before the failure only match on the retry, so count them now
+                e.getResult().getUpserts().forEach(upsert -> countCreated(batch.get(upsert.getIndex())));
+                if (!retry(batch, attempt, e)) {
+                    return;
+                }
+            } catch (RuntimeException e) {
+                if (!retry(batch, attempt, e)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void countCreated(Attendance attendance) {
+        liveAttendanceCounters.recordStatusChange(attendance.getEmployeeId(), attendance.getDate(), null, attendance.getStatus());
+    }
+
+    // Waits before the next attempt, or returns false once shutdown has used up its attempts
+    private boolean retry(List<Attendance> batch, int attempt, RuntimeException e) throws InterruptedException {
+        if (!running && attempt >= MAX_ATTEMPTS) {
+            logger.error("Dropped {} clock-ins during shutdown after {} attempts: {}", batch.size(), attempt, e.getMessage(), e);
+            return false;
+        }
+        logger.warn("Saving {} clock-ins failed (attempt {}), retrying: {}", batch.size(), attempt, e.getMessage());
+        Thread.sleep(RETRY_BACKOFF_MILLIS * Math.min(attempt, MAX_BACKOFF_STEPS));
+        return true;
+    }
+
+    private void release(Attendance attendance) {
+        pending.remove(dayKey(attendance), attendance);
+        pendingById.remove(attendance.getId(), attendance);
+    }
+
+    private static String dayKey(Attendance attendance) {
+        return attendance.getEmployeeId() + "|" + attendance.getDate();
+    }
+}
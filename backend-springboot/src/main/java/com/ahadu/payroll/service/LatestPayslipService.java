@@ -0,0 +1,114 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.LatestPayslip;
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.repository.LatestPayslipRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Serves each employee's latest APPROVED or PAID payslip from the per-employee pointers in
+ * LatestPayslipRepository, with an in-memory cache in front. Everyone opens their payslip
+ * on payday morning, so after the first read per employee the request never reaches MongoDB.
+ *
+ * Every pointer change on this instance starts a new cache generation, and an entry is only
+ * served in the generation whose pointers it was read from. A read that started before a run
+ * was published can therefore never hide the new payslip behind the old one. Entries also
+ * expire after a few minutes, which bounds staleness when another instance changed them, and
+ * the cache holds at most payroll.payslips.latest-cache-size employees.
+ */
+@Service
+public class LatestPayslipService {
+
+    private static final long CACHE_TTL_NANOS = Duration.ofMinutes(5).toNanos();
+
+    private final LatestPayslipRepository latestPayslipRepository;
+    private final int maxCachedEmployees;
+    private final ConcurrentHashMap<String, CachedPayslip> cache = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public LatestPayslipService(LatestPayslipRepository latestPayslipRepository,
+                                @Value("${payroll.payslips.latest-cache-size:50000}") int maxCachedEmployees) {
+        this.latestPayslipRepository = latestPayslipRepository;
+        this.maxCachedEmployees = maxCachedEmployees;
+    }
+
+    public Optional<Paycheck> getLatestPayslip(String employeeId) {
+        long now = System.nanoTime();
+        // Read before the pointer, so a load that overlaps a publish is stamped with the old generation
+        long currentGeneration = generation.get();
+        CachedPayslip cached = cache.get(employeeId);
+        if (cached != null && cached.generation == currentGeneration && now - cached.loadedAt <= CACHE_TTL_NANOS) {
+            return Optional.ofNullable(cached.paycheck);
+        }
+        // Employees without a payslip are cached too, so they do not miss every time
+        Paycheck paycheck = latestPayslipRepository.findById(employeeId).map(LatestPayslip::getPaycheck).orElse(null);
+        if (cache.size() < maxCachedEmployees || cache.containsKey(employeeId)) {
+            cache.put(employeeId, new CachedPayslip(paycheck, now, currentGeneration));
+        }
+        return Optional.ofNullable(paycheck);
+    }
+
+    /**
+     * Drops expired entries and entries of earlier generations, which are never served again.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void evictExpired() {
+        long now = System.nanoTime();
+        long currentGeneration = generation.get();
+        cache.values().removeIf(cached -> cached.generation != currentGeneration || now - cached.loadedAt > CACHE_TTL_NANOS);
+    }
+
+    /**
+     * Moves the pointers of a run's employees to its paychecks after the run was finalized
+     * or paid.
+     */
+    public void publishRun(String payrollRunId) {
+        latestPayslipRepository.publishRun(payrollRunId);
+        invalidate();
+    }
+
+    /**
+     * Lists the employees whose latest payslip belongs to the given run. Call before the run's
+     * paychecks are deleted and pass the result to {@link #rebuildPointers} afterwards.
+     */
+    public List<String> findEmployeesPointingToRun(String payrollRunId) {
+        return latestPayslipRepository.findEmployeeIdsByPayrollRunId(payrollRunId).stream()
+                .map(LatestPayslip::getEmployeeId)
+                .collect(Collectors.toList());
+    }
+
+    public void rebuildPointers(Collection<String> employeeIds) {
+        latestPayslipRepository.rebuildPointers(employeeIds);
+        invalidate();
+    }
+
+    // Called after the pointers were written; entries loaded before are stale from now on
+    private void invalidate() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private static final class CachedPayslip {
+        private final Paycheck paycheck; // null if the employee has no published payslip
+        private final long loadedAt;
+        private final long generation;
+
+        private CachedPayslip(Paycheck paycheck, long loadedAt, long generation) {
+            this.paycheck = paycheck;
+            this.loadedAt = loadedAt;
+            this.generation = generation;
+        }
+    }
+}
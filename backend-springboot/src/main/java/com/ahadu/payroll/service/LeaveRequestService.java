@@ -22,11 +22,14 @@ public class LeaveRequestService {
 
     private final LeaveRequestRepository leaveRequestRepository;
     private final UserRepository userRepository; // Inject UserRepository to get employee names
+    private final LiveAttendanceCounters liveAttendanceCounters;
 
     @Autowired
-    public LeaveRequestService(LeaveRequestRepository leaveRequestRepository, UserRepository userRepository) {
+    public LeaveRequestService(LeaveRequestRepository leaveRequestRepository, UserRepository userRepository,
+                               LiveAttendanceCounters liveAttendanceCounters) {
         this.leaveRequestRepository = leaveRequestRepository;
         this.userRepository = userRepository;
+        this.liveAttendanceCounters = liveAttendanceCounters;
     }
 
     /**
@@ -113,7 +116,9 @@ public class LeaveRequestService {
         return leaveRequestRepository.findById(requestId).map(leaveRequest -> {
             leaveRequest.setStatus("Approved");
             leaveRequest.setApprovedBy(adminId); // Record who approved it
-            return leaveRequestRepository.save(leaveRequest);
+            LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
+            liveAttendanceCounters.recordLeave(savedRequest);
+            return savedRequest;
         });
     }
 
@@ -129,7 +134,9 @@ public class LeaveRequestService {
         return leaveRequestRepository.findById(requestId).map(leaveRequest -> {
             leaveRequest.setStatus("Rejected");
             leaveRequest.setApprovedBy(adminId); // Record who rejected it
-            return leaveRequestRepository.save(leaveRequest);
+            LeaveRequest savedRequest = leaveRequestRepository.save(leaveRequest);
+            liveAttendanceCounters.recordLeave(savedRequest);
+            return savedRequest;
         });
     }
 
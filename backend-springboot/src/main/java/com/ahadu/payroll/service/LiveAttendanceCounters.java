@@ -0,0 +1,197 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.LeaveRequest;
+import com.ahadu.payroll.payload.AttendanceOverviewResponse;
+import com.ahadu.payroll.payload.AttendanceStatusCount;
+import com.ahadu.payroll.repository.AttendanceRepository;
+import com.ahadu.payroll.repository.LeaveRequestRepository;
+import com.ahadu.payroll.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Live attendance counts for today, so the admin overview is a lock-free memory read
+ * instead of an aggregation on every refresh.
+ *
+ * Attendance and leave changes made through this instance move the counters as they happen.
+ * Every few minutes, and at midnight, the counters are rebuilt from MongoDB with the indexed
+ * overview queries. Changes made while a rebuild is running are applied to the rebuilt day
+ * too, so they are not lost when it replaces the old one. The rebuild corrects drift from
+ * other instances, from direct database changes, and from leaves that overlap.
+ */
+@Component
+public class LiveAttendanceCounters {
+
+    private static final List<String> ATTENDING_STATUSES = List.of("Present", "Late");
+
+    private final AttendanceRepository attendanceRepository;
+    private final UserRepository userRepository;
+    private final LeaveRequestRepository leaveRequestRepository;
+
+    private volatile Day day;
+
+    // Changes made while reconcile() runs, applied again to the day it builds. Guarded by itself.
+    private final List<Consumer<Day>> changesDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+
+    @Autowired
+    public LiveAttendanceCounters(AttendanceRepository attendanceRepository, UserRepository userRepository,
+                                  LeaveRequestRepository leaveRequestRepository) {
+        this.attendanceRepository = attendanceRepository;
+        this.userRepository = userRepository;
+        this.leaveRequestRepository = leaveRequestRepository;
+    }
+
+    public AttendanceOverviewResponse overview() {
+        return currentDay().toOverview();
+    }
+
+    /**
+     * Moves the counters for an attendance record that was created (previousStatus null),
+     * changed, or deleted (newStatus null). Records of other days are ignored, and so is
+     * everything before the first rebuild of the day, which will read it from MongoDB anyway.
+     */
+    public void recordStatusChange(String employeeId, LocalDate date, String previousStatus, String newStatus) {
+        apply(date, current -> {
+            current.adjust(employeeId, previousStatus, -1);
+            current.adjust(employeeId, newStatus, 1);
+        });
+    }
+
+    /**
+     * Adds or removes an employee from today's leave after a leave request was approved or
+     * rejected, if the leave covers today. If the employee already clocked in today, the
+     * attending-on-leave count moves with it, so they are still counted once.
+     */
+    public void recordLeave(LeaveRequest leaveRequest) {
+        Day current = day;
+        LocalDate date = current != null ? current.date : LocalDate.now();
+        if (leaveRequest.getStartDate() == null || leaveRequest.getEndDate() == null
+                || leaveRequest.getStartDate().isAfter(date) || leaveRequest.getEndDate().isBefore(date)) {
+            return;
+        }
+        String employeeId = leaveRequest.getEmployeeId();
+        boolean approved = "Approved".equals(leaveRequest.getStatus());
+        boolean attending = attendanceRepository.findByEmployeeIdAndDate(employeeId, date)
+                .filter(attendance -> ATTENDING_STATUSES.contains(attendance.getStatus()))
+                .isPresent();
+        apply(date, target -> {
+            boolean changed = approved ? target.onLeaveEmployeeIds.add(employeeId) : target.onLeaveEmployeeIds.remove(employeeId);
+            if (changed && attending) {
+                target.attendingOnLeave.add(approved ? 1 : -1);
+            }
+        });
+    }
+
+    /**
+     * Applies a change to the current day if it is for that date, and keeps it for the day a
+     * running rebuild will publish. A change whose database write the rebuild already read is
+     * then counted twice until the next rebuild; one that it missed is no longer lost.
+     */
+    private void apply(LocalDate date, Consumer<Day> change) {
+        Consumer<Day> forDate = target -> {
+            if (target.date.equals(date)) {
+                change.accept(target);
+            }
+        };
+        synchronized (changesDuringRebuild) {
+            Day current = day;
+            if (current != null) {
+                forDate.accept(current);
+            }
+            if (rebuilding) {
+                changesDuringRebuild.add(forDate);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds today's counters from MongoDB: an indexed count of active users, the approved
+     * leaves covering today, and one $group count of today's attendance per status.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public synchronized void reconcile() {
+        synchronized (changesDuringRebuild) {
+            rebuilding = true;
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            Day fresh = new Day(today, userRepository.countByStatus("Active"));
+            leaveRequestRepository.findEmployeeIdsByStatusOnDate("Approved", today)
+                    .forEach(leaveRequest -> fresh.onLeaveEmployeeIds.add(leaveRequest.getEmployeeId()));
+            for (AttendanceStatusCount count : attendanceRepository.countByStatusOnDate(today, ATTENDING_STATUSES, fresh.onLeaveEmployeeIds)) {
+                fresh.counter(count.getStatus()).add(count.getCount());
+                fresh.attendingOnLeave.add(count.getOnLeaveCount());
+            }
+            synchronized (changesDuringRebuild) {
+                changesDuringRebuild.forEach(change -> change.accept(fresh));
+                day = fresh;
+            }
+        } finally {
+            synchronized (changesDuringRebuild) {
+                rebuilding = false;
+                changesDuringRebuild.clear();
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 0 0 * * *")
+    public void resetAtMidnight() {
+        reconcile();
+    }
+
+    private Day currentDay() {
+        Day current = day;
+        if (current == null || !current.date.equals(LocalDate.now())) {
+            reconcile();
+            current = day;
+        }
+        return current;
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final long totalEmployees;
+        private final LongAdder present = new LongAdder();
+        private final LongAdder late = new LongAdder();
+        private final LongAdder attendingOnLeave = new LongAdder(); // Present or Late while on leave
+        private final Set<String> onLeaveEmployeeIds = ConcurrentHashMap.newKeySet();
+
+        private Day(LocalDate date, long totalEmployees) {
+            this.date = date;
+            this.totalEmployees = totalEmployees;
+        }
+
+        private LongAdder counter(String status) {
+            return "Present".equals(status) ? present : late;
+        }
+
+        private void adjust(String employeeId, String status, int delta) {
+            if (status == null || !ATTENDING_STATUSES.contains(status)) {
+                return;
+            }
+            counter(status).add(delta);
+            if (onLeaveEmployeeIds.contains(employeeId)) {
+                attendingOnLeave.add(delta);
+            }
+        }
+
+        private AttendanceOverviewResponse toOverview() {
+            long presentToday = present.sum();
+            long lateToday = late.sum();
+            long onLeaveToday = onLeaveEmployeeIds.size();
+            // Employees who clocked in while on leave are counted once
+            long absentToday = Math.max(totalEmployees - (presentToday + lateToday + onLeaveToday - attendingOnLeave.sum()), 0);
+            return new AttendanceOverviewResponse(totalEmployees, presentToday, lateToday, onLeaveToday, absentToday);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ahadu.payroll.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on primitive longs for the payroll hot path.
+ *
+ * Amounts are held as long minor units (1/100 of the currency unit) and percentage rates
+ * as longs scaled by 10^6, so paychecks can be calculated and run totals reduced without
+ * allocating a BigDecimal for every intermediate step. Rounding follows the HALF_UP
+ * rules of the BigDecimal code it replaces, so results are identical.
+ *
+ * Values are converted back to BigDecimal (scale 2) only at the persistence and JSON boundary.
+ * Inputs that cannot be represented exactly are reported with {@link #UNREPRESENTABLE} so
+ * callers can fall back to BigDecimal arithmetic.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    public static final int RATE_SCALE = 6;
+
+    /**
+     * Marker returned when a value does not fit the fixed-point representation.
+     */
+    public static final long UNREPRESENTABLE = Long.MIN_VALUE;
+
+    // percentOf divides by 100 (percent) x 10^RATE_SCALE (rate scale)
+    private static final long PERCENT_DIVISOR = 100L * 1_000_000L;
+
+    private Money() {
+    }
+
+    /**
+     * Rounds an amount to minor units with HALF_UP, like {@code setScale(2, RoundingMode.HALF_UP)}.
+     * A null amount counts as zero.
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return UNREPRESENTABLE;
+        }
+    }
+
+    /**
+     * Converts an amount to minor units only if that needs no rounding, otherwise returns
+     * {@link #UNREPRESENTABLE}. A null amount counts as zero.
+     */
+    public static long exact(BigDecimal amount) {
+        if (amount == null) {
+            return 0;
+        }
+        if (amount.scale() > SCALE) {
+            return UNREPRESENTABLE;
+        }
+        return of(amount);
+    }
+
+    /**
+     * Converts a percentage (e.g. 15.5 for 15.5%) to a rate scaled by 10^6, or returns
+     * {@link #UNREPRESENTABLE} if it has more than 6 decimals. A null percentage counts as zero.
+     */
+    public static long rate(BigDecimal percentage) {
+        if (percentage == null) {
+            return 0;
+        }
+        if (percentage.scale() > RATE_SCALE) {
+            return UNREPRESENTABLE;
+        }
+        try {
+            return percentage.setScale(RATE_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return UNREPRESENTABLE;
+        }
+    }
+
+    /**
+     * Percentage of an amount in minor units, rounded HALF_UP to minor units.
+     * Equivalent to {@code amount.multiply(percentage).divide(100).setScale(2, HALF_UP)}.
+     *
+     * @throws ArithmeticException if the intermediate product overflows a long.
+     */
+    public static long percentOf(long minorUnits, long rate) {
+        long product = Math.multiplyExact(minorUnits, rate);
+        long quotient = product / PERCENT_DIVISOR;
+        long remainder = product % PERCENT_DIVISOR;
+        // HALF_UP rounds ties away from zero
+        if (Math.abs(remainder) * 2 >= PERCENT_DIVISOR) {
+            quotient += Long.signum(product);
+        }
+        return quotient;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * Converts minor units back to a BigDecimal with scale 2.
+     */
+    public static BigDecimal toBigDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+}
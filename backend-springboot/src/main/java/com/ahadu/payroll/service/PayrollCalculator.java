@@ -0,0 +1,321 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PaycheckEarning;
+import com.ahadu.payroll.model.SalaryComponent;
+import com.ahadu.payroll.model.User;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes paychecks on the server from the employee's salary settings and the
+ * configured salary components, instead of relying on figures typed in by the admin.
+ *
+ * Calculation rules for a single employee:
+ * - commission = base salary x commission %
+ * - "Earning" components are added to gross pay (percentages apply to base salary)
+ * - tax = gross pay x tax %, plus any "Tax" components (percentages apply to gross pay)
+ * - provident fund = base salary x provident fund %
+ * - "Deduction" components are added to total deductions (percentages apply to base salary)
+ * Every intermediate amount is rounded to 2 decimals with HALF_UP.
+ *
+ * The arithmetic runs on primitive minor units through {@link Money}. Employees whose
+ * percentages cannot be represented exactly in fixed point fall back to the equivalent
+ * BigDecimal calculation. Large employee sets are split across cores with fork-join.
+ */
+@Component
+public class PayrollCalculator {
+
+    // Number of employees a single fork-join leaf computes sequentially.
+    private static final int SEQUENTIAL_THRESHOLD = 500;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Calculates a DRAFT paycheck for every employee in the list.
+     * The returned paychecks keep the order of the input list and have no payroll run ID yet.
+     */
+    public List<Paycheck> calculate(List<User> employees, List<SalaryComponent> components,
+                                    LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        if (employees.isEmpty()) {
+            return new ArrayList<>();
+        }
+        FixedPointComponents fixedPointComponents = FixedPointComponents.of(components);
+        CalculationTask task = new CalculationTask(employees, 0, employees.size(), components, fixedPointComponents,
+                payPeriodStart, payPeriodEnd);
+        return ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Calculates a DRAFT paycheck for a single employee.
+     */
+    public Paycheck calculatePaycheck(User employee, List<SalaryComponent> components,
+                                      LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        return calculatePaycheck(employee, components, FixedPointComponents.of(components), payPeriodStart, payPeriodEnd);
+    }
+
+    private Paycheck calculatePaycheck(User employee, List<SalaryComponent> components, FixedPointComponents fixedPointComponents,
+                                       LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+        Paycheck paycheck = new Paycheck();
+        paycheck.setEmployeeId(employee.getId());
+        paycheck.setEmployeeUsername(employee.getUsername());
+        paycheck.setPayPeriodStart(payPeriodStart);
+        paycheck.setPayPeriodEnd(payPeriodEnd);
+        paycheck.setStatus("DRAFT");
+        paycheck.setLatePenaltyDeduction(Money.toBigDecimal(0));
+        paycheck.setAbsentPenaltyDeduction(Money.toBigDecimal(0));
+
+        if (fixedPointComponents == null || !calculateFixedPoint(employee, fixedPointComponents, paycheck)) {
+            calculateBigDecimal(employee, components, paycheck);
+        }
+        return paycheck;
+    }
+
+    /**
+     * Fixed-point calculation on minor units. Returns false, leaving the paycheck untouched,
+     * if an input cannot be represented exactly or an intermediate value overflows.
+     */
+    private static boolean calculateFixedPoint(User employee, FixedPointComponents components, Paycheck paycheck) {
+        long baseSalary = Money.of(employee.getBaseSalary());
+        long commissionRate = Money.rate(employee.getCommissionPercentage());
+        long taxRate = Money.rate(employee.getTaxPercentage());
+        long providentFundRate = Money.rate(employee.getProvidentFundPercentage());
+        if (baseSalary == Money.UNREPRESENTABLE || commissionRate == Money.UNREPRESENTABLE
+                || taxRate == Money.UNREPRESENTABLE || providentFundRate == Money.UNREPRESENTABLE) {
+            return false;
+        }
+        try {
+            long commission = Money.percentOf(baseSalary, commissionRate);
+            long[] earnings = components.earnings(baseSalary);
+            long otherEarnings = 0;
+            for (long earning : earnings) {
+                otherEarnings = Money.add(otherEarnings, earning);
+            }
+            long grossPay = Money.add(Money.add(baseSalary, commission), otherEarnings);
+
+            long tax = Money.add(Money.percentOf(grossPay, taxRate), components.taxes(grossPay));
+            long providentFund = Money.percentOf(baseSalary, providentFundRate);
+            long totalDeductions = Money.add(Money.add(tax, providentFund), components.deductions(baseSalary));
+
+            paycheck.setBaseSalary(Money.toBigDecimal(baseSalary));
+            paycheck.setEarnings(components.toEarnings(earnings));
+            paycheck.setGrossPay(Money.toBigDecimal(grossPay));
+            paycheck.setCommissionAmount(Money.toBigDecimal(commission));
+            paycheck.setTaxDeduction(Money.toBigDecimal(tax));
+            paycheck.setProvidentFundDeduction(Money.toBigDecimal(providentFund));
+            paycheck.setTotalDeductions(Money.toBigDecimal(totalDeductions));
+            paycheck.setNetPay(Money.toBigDecimal(Money.subtract(grossPay, totalDeductions)));
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reference BigDecimal calculation, used when the fixed-point path cannot represent the inputs.
+     * Package-private so the fixed-point path can be checked against it.
+     */
+    static void calculateBigDecimal(User employee, List<SalaryComponent> components, Paycheck paycheck) {
+        BigDecimal baseSalary = scale(orZero(employee.getBaseSalary()));
+        BigDecimal commission = percentOf(baseSalary, employee.getCommissionPercentage());
+
+        BigDecimal otherEarnings = BigDecimal.ZERO;
+        List<PaycheckEarning> earnings = new ArrayList<>();
+        for (SalaryComponent component : components) {
+            if ("Earning".equalsIgnoreCase(component.getType())) {
+                BigDecimal earning = componentAmount(component, baseSalary);
+                earnings.add(new PaycheckEarning(component.getName(), earning));
+                otherEarnings = otherEarnings.add(earning);
+            }
+        }
+        BigDecimal grossPay = baseSalary.add(commission).add(otherEarnings);
+
+        BigDecimal tax = percentOf(grossPay, employee.getTaxPercentage());
+        BigDecimal providentFund = percentOf(baseSalary, employee.getProvidentFundPercentage());
+        BigDecimal otherDeductions = BigDecimal.ZERO;
+        for (SalaryComponent component : components) {
+            if ("Tax".equalsIgnoreCase(component.getType())) {
+                tax = tax.add(componentAmount(component, grossPay));
+            } else if ("Deduction".equalsIgnoreCase(component.getType())) {
+                otherDeductions = otherDeductions.add(componentAmount(component, baseSalary));
+            }
+        }
+        BigDecimal totalDeductions = tax.add(providentFund).add(otherDeductions);
+
+        paycheck.setBaseSalary(baseSalary);
+        paycheck.setEarnings(earnings);
+        paycheck.setGrossPay(grossPay);
+        paycheck.setCommissionAmount(commission);
+        paycheck.setTaxDeduction(tax);
+        paycheck.setProvidentFundDeduction(providentFund);
+        paycheck.setTotalDeductions(totalDeductions);
+        paycheck.setNetPay(grossPay.subtract(totalDeductions));
+    }
+
+    private static BigDecimal componentAmount(SalaryComponent component, BigDecimal percentageBase) {
+        if (component.isPercentage()) {
+            return percentOf(percentageBase, component.getAmount());
+        }
+        return scale(orZero(component.getAmount()));
+    }
+
+    private static BigDecimal percentOf(BigDecimal amount, BigDecimal percentage) {
+        if (percentage == null) {
+            return BigDecimal.ZERO.setScale(2);
+        }
+        return scale(amount.multiply(percentage).divide(HUNDRED));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal scale(BigDecimal value) {
+        return value.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Salary components converted to fixed point once per run, split by type.
+     * Each component is either a percentage rate or a fixed amount in minor units.
+     */
+    private static final class FixedPointComponents {
+        private final String[] earningNames;
+        private final long[] earningValues;
+        private final boolean[] earningIsPercentage;
+        private final long[] taxValues;
+        private final boolean[] taxIsPercentage;
+        private final long[] deductionValues;
+        private final boolean[] deductionIsPercentage;
+
+        private FixedPointComponents(List<SalaryComponent> earnings, List<SalaryComponent> taxes, List<SalaryComponent> deductions) {
+            this.earningNames = earnings.stream().map(SalaryComponent::getName).toArray(String[]::new);
+            this.earningValues = new long[earnings.size()];
+            this.earningIsPercentage = new boolean[earnings.size()];
+            this.taxValues = new long[taxes.size()];
+            this.taxIsPercentage = new boolean[taxes.size()];
+            this.deductionValues = new long[deductions.size()];
+            this.deductionIsPercentage = new boolean[deductions.size()];
+            fill(earnings, earningValues, earningIsPercentage);
+            fill(taxes, taxValues, taxIsPercentage);
+            fill(deductions, deductionValues, deductionIsPercentage);
+        }
+
+        /**
+         * Returns null if any component cannot be represented exactly in fixed point.
+         */
+        static FixedPointComponents of(List<SalaryComponent> components) {
+            List<SalaryComponent> earnings = new ArrayList<>();
+            List<SalaryComponent> taxes = new ArrayList<>();
+            List<SalaryComponent> deductions = new ArrayList<>();
+            for (SalaryComponent component : components) {
+                long value = component.isPercentage() ? Money.rate(component.getAmount()) : Money.of(component.getAmount());
+                if (value == Money.UNREPRESENTABLE) {
+                    return null;
+                }
+                if ("Earning".equalsIgnoreCase(component.getType())) {
+                    earnings.add(component);
+                } else if ("Tax".equalsIgnoreCase(component.getType())) {
+                    taxes.add(component);
+                } else if ("Deduction".equalsIgnoreCase(component.getType())) {
+                    deductions.add(component);
+                }
+            }
+            return new FixedPointComponents(earnings, taxes, deductions);
+        }
+
+        private static void fill(List<SalaryComponent> components, long[] values, boolean[] isPercentage) {
+            for (int i = 0; i < values.length; i++) {
+                SalaryComponent component = components.get(i);
+                isPercentage[i] = component.isPercentage();
+                values[i] = component.isPercentage() ? Money.rate(component.getAmount()) : Money.of(component.getAmount());
+            }
+        }
+
+        /**
+         * The amount of each earning component, in the order of {@link #toEarnings}.
+         */
+        long[] earnings(long baseSalary) {
+            long[] amounts = new long[earningValues.length];
+            for (int i = 0; i < amounts.length; i++) {
+                amounts[i] = earningIsPercentage[i] ? Money.percentOf(baseSalary, earningValues[i]) : earningValues[i];
+            }
+            return amounts;
+        }
+
+        List<PaycheckEarning> toEarnings(long[] amounts) {
+            List<PaycheckEarning> earnings = new ArrayList<>(amounts.length);
+            for (int i = 0; i < amounts.length; i++) {
+                earnings.add(new PaycheckEarning(earningNames[i], Money.toBigDecimal(amounts[i])));
+            }
+            return earnings;
+        }
+
+        long taxes(long grossPay) {
+            return sum(taxValues, taxIsPercentage, grossPay);
+        }
+
+        long deductions(long baseSalary) {
+            return sum(deductionValues, deductionIsPercentage, baseSalary);
+        }
+
+        private static long sum(long[] values, boolean[] isPercentage, long percentageBase) {
+            long total = 0;
+            for (int i = 0; i < values.length; i++) {
+                total = Money.add(total, isPercentage[i] ? Money.percentOf(percentageBase, values[i]) : values[i]);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Splits the employee range in halves until it is small enough to compute sequentially.
+     */
+    private class CalculationTask extends RecursiveTask<List<Paycheck>> {
+        private final List<User> employees;
+        private final int from;
+        private final int to;
+        private final List<SalaryComponent> components;
+        private final FixedPointComponents fixedPointComponents;
+        private final LocalDate payPeriodStart;
+        private final LocalDate payPeriodEnd;
+
+        CalculationTask(List<User> employees, int from, int to, List<SalaryComponent> components,
+                        FixedPointComponents fixedPointComponents, LocalDate payPeriodStart, LocalDate payPeriodEnd) {
+            this.employees = employees;
+            this.from = from;
+            this.to = to;
+            this.components = components;
+            this.fixedPointComponents = fixedPointComponents;
+            this.payPeriodStart = payPeriodStart;
+            this.payPeriodEnd = payPeriodEnd;
+        }
+
+        @Override
+        protected List<Paycheck> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                List<Paycheck> paychecks = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    paychecks.add(calculatePaycheck(employees.get(i), components, fixedPointComponents, payPeriodStart, payPeriodEnd));
+                }
+                return paychecks;
+            }
+            int middle = (from + to) >>> 1;
+            CalculationTask left = new CalculationTask(employees, from, middle, components, fixedPointComponents,
+                    payPeriodStart, payPeriodEnd);
+            CalculationTask right = new CalculationTask(employees, middle, to, components, fixedPointComponents,
+                    payPeriodStart, payPeriodEnd);
+            left.fork();
+            List<Paycheck> paychecks = right.compute();
+            List<Paycheck> leftPaychecks = left.join();
+            leftPaychecks.addAll(paychecks);
+            return leftPaychecks;
+        }
+    }
+}
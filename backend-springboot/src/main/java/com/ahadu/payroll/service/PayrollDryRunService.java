@@ -0,0 +1,98 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.payload.PayrollDryRun;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dry-run payroll previews. A preview is computed in memory and kept under a random token
+ * for a short time instead of being written as a DRAFT run, so checking numbers leaves
+ * nothing behind in MongoDB. Committing the token saves the cached result as it is.
+ *
+ * Previews are held in memory on this instance only and at most {@link #MAX_PREVIEWS} at
+ * a time, since a large run can take a lot of heap.
+ */
+@Service
+public class PayrollDryRunService {
+
+    private static final long RETENTION_MINUTES = 15;
+    private static final int MAX_PREVIEWS = 20;
+
+    private final PayrollService payrollService;
+    private final Map<String, DryRun> previews = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PayrollDryRunService(PayrollService payrollService) {
+        this.payrollService = payrollService;
+    }
+
+    /**
+     * Computes a preview without saving it and caches it for commit.
+     *
+     * @throws IllegalArgumentException if a row references an unknown employee.
+     * @throws IllegalStateException    if too many previews are already waiting to be committed.
+     */
+    public PayrollDryRun preview(LocalDate payPeriodStart, LocalDate payPeriodEnd,
+                                 List<DetailedPaycheckDto> payrollDetails, String creatorId) {
+        evictExpiredPreviews();
+        if (previews.size() >= MAX_PREVIEWS) {
+            throw new IllegalStateException("Too many payroll previews are waiting to be committed. Please try again later.");
+        }
+        PayrollRun payrollRun = payrollService.computePreview(payPeriodStart, payPeriodEnd, payrollDetails, creatorId);
+        DryRun dryRun = new DryRun(creatorId, payrollRun, LocalDateTime.now().plusMinutes(RETENTION_MINUTES));
+        String token = UUID.randomUUID().toString();
+        previews.put(token, dryRun);
+        return new PayrollDryRun(token, dryRun.expiresAt, payrollRun);
+    }
+
+    /**
+     * Saves a cached preview without recalculating it. A token can be committed once, and
+     * only by the admin who created the preview.
+     *
+     * @return The saved DRAFT run, or empty if the token is unknown, expired or someone else's.
+     */
+    public Optional<PayrollRun> commit(String token, String creatorId) {
+        DryRun dryRun = previews.get(token);
+        if (dryRun == null || !dryRun.createdById.equals(creatorId)) {
+            return Optional.empty();
+        }
+        // Only the caller that removes the entry commits it, so a token is never saved twice
+        if (!previews.remove(token, dryRun) || dryRun.isExpired(LocalDateTime.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(payrollService.commitPreview(dryRun.payrollRun));
+    }
+
+    @Scheduled(fixedDelay = 60 * 1000)
+    public void evictExpiredPreviews() {
+        LocalDateTime now = LocalDateTime.now();
+        previews.values().removeIf(dryRun -> dryRun.isExpired(now));
+    }
+
+    private static final class DryRun {
+        private final String createdById;
+        private final PayrollRun payrollRun;
+        private final LocalDateTime expiresAt;
+
+        private DryRun(String createdById, PayrollRun payrollRun, LocalDateTime expiresAt) {
+            this.createdById = createdById;
+            this.payrollRun = payrollRun;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(LocalDateTime now) {
+            return now.isAfter(expiresAt);
+        }
+    }
+}
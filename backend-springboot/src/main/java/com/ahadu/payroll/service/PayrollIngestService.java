@@ -0,0 +1,226 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.payload.PayrollIngestResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams payroll preview rows from NDJSON or CSV request bodies.
+ * Both formats are read value by value with a Jackson MappingIterator over one streaming
+ * parser, so CSV fields may be quoted and contain commas and line breaks. Rows are saved in
+ * fixed-size batches, so heap use does not grow with the number of employees. Rows that fail
+ * to bind or validate are reported back without aborting the run; if the body itself is
+ * malformed or cannot be read to the end, the partial run is removed again.
+ */
+@Service
+public class PayrollIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollIngestService.class);
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final PayrollService payrollService;
+    private final ObjectReader jsonRowReader;
+    private final ObjectReader csvRowReader;
+
+    @Autowired
+    public PayrollIngestService(PayrollService payrollService, ObjectMapper objectMapper) {
+        this.payrollService = payrollService;
+        this.jsonRowReader = objectMapper.readerFor(DetailedPaycheckDto.class);
+        // The column names come from the header row of each body
+        this.csvRowReader = CsvMapper.builder()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .build()
+                .readerFor(DetailedPaycheckDto.class)
+                .with(CsvSchema.emptySchema().withHeader());
+    }
+
+    /**
+     * Creates a DRAFT payroll run from a streamed request body.
+     *
+     * @param body   The request body.
+     * @param format {@link #NDJSON} (one JSON object per line) or {@link #CSV} (header row first).
+     */
+    public PayrollIngestResponse ingestPreview(InputStream body, String format, LocalDate payPeriodStart,
+                                               LocalDate payPeriodEnd, String creatorId) throws IOException {
+        // Opening the iterator reads the first token, and the CSV header, before the run is created
+        MappingIterator<DetailedPaycheckDto> rows = CSV.equals(format) ? csvRows(body) : jsonRows(body);
+
+        PayrollRun payrollRun = payrollService.startDraftRun(payPeriodStart, payPeriodEnd, creatorId);
+        DraftRunBuilder builder = new DraftRunBuilder(payrollRun);
+        try {
+            readRows(rows, builder);
+            return builder.complete();
+        } catch (IOException | RuntimeException e) {
+            abandon(payrollRun.getId());
+            throw e;
+        }
+    }
+
+    private MappingIterator<DetailedPaycheckDto> jsonRows(InputStream body) throws IOException {
+        try {
+            return jsonRowReader.readValues(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed NDJSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private MappingIterator<DetailedPaycheckDto> csvRows(InputStream body) throws IOException {
+        try {
+            // Creating the iterator reads the header row, and fails if there is none
+            return csvRowReader.readValues(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("CSV input must start with a header row: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Reads every row of either format. A row that cannot be bound is reported and the iterator
+     * skips to the next value; a syntax error leaves the parser with no next value to find, so
+     * it ends the upload.
+     */
+    private static void readRows(MappingIterator<DetailedPaycheckDto> rows, DraftRunBuilder builder) throws IOException {
+        try {
+            while (rows.hasNextValue()) {
+                builder.nextRow();
+                try {
+                    builder.add(rows.nextValue());
+                } catch (JsonMappingException e) {
+                    builder.reject(e.getOriginalMessage());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed input after row " + builder.rowsRead + ": " + e.getOriginalMessage());
+        }
+    }
+
+    private void abandon(String payrollRunId) {
+        try {
+            payrollService.abandonDraftRun(payrollRunId);
+        } catch (RuntimeException e) {
+            logger.error("Could not remove the partial payroll run {} of a failed upload: {}", payrollRunId, e.getMessage(), e);
+        }
+    }
+
+    private static String validate(DetailedPaycheckDto row) {
+        if (row == null) {
+            return "Row must be an object.";
+        }
+        if (row.getEmployeeId() == null || row.getEmployeeId().isBlank()) {
+            return "employeeId is required.";
+        }
+        if (isNegative(row.getBaseSalary()) || isNegative(row.getCommissionAmount())
+                || isNegative(row.getTaxDeduction()) || isNegative(row.getProvidentFundDeduction())
+                || isNegative(row.getLatePenaltyDeduction()) || isNegative(row.getAbsentPenaltyDeduction())) {
+            return "Amounts must not be negative.";
+        }
+        return null;
+    }
+
+    private static boolean isNegative(BigDecimal value) {
+        return value != null && value.signum() < 0;
+    }
+
+    /**
+     * Saves the accepted rows of one upload in batches and sums their totals.
+     */
+    private class DraftRunBuilder {
+        private final PayrollRun payrollRun;
+        private final PayrollRunTotals totals = new PayrollRunTotals();
+        private final ErrorCollector errors = new ErrorCollector();
+        private final List<DetailedPaycheckDto> batch = new ArrayList<>(BATCH_SIZE);
+        private long rowsRead;
+
+        DraftRunBuilder(PayrollRun payrollRun) {
+            this.payrollRun = payrollRun;
+        }
+
+        // Called before each row is parsed, so rows that fail to parse are numbered too
+        void nextRow() {
+            rowsRead++;
+        }
+
+        void reject(String problem) {
+            errors.add("Row " + rowsRead + ": " + problem);
+        }
+
+        void add(DetailedPaycheckDto row) {
+            String problem = validate(row);
+            if (problem != null) {
+                reject(problem);
+                return;
+            }
+            batch.add(row);
+            if (batch.size() == BATCH_SIZE) {
+                saveBatch();
+            }
+        }
+
+        PayrollIngestResponse complete() {
+            if (!batch.isEmpty()) {
+                saveBatch();
+            }
+            PayrollRun summary = payrollService.completeDraftRun(payrollRun, totals);
+            return new PayrollIngestResponse(summary, rowsRead, totals.getPaycheckCount(), errors.reported, errors.truncated);
+        }
+
+        private void saveBatch() {
+            totals.addAll(payrollService.previewChunk(payrollRun, batch, errors.batchErrors()));
+            errors.flushBatch();
+            batch.clear();
+        }
+    }
+
+    /**
+     * Keeps at most {@link #MAX_REPORTED_ERRORS} messages so a bad file cannot exhaust the heap.
+     */
+    private static class ErrorCollector {
+        private final List<String> reported = new ArrayList<>();
+        private final List<String> batch = new ArrayList<>();
+        private boolean truncated;
+
+        void add(String message) {
+            if (reported.size() < MAX_REPORTED_ERRORS) {
+                reported.add(message);
+            } else {
+                truncated = true;
+            }
+        }
+
+        List<String> batchErrors() {
+            return batch;
+        }
+
+        void flushBatch() {
+            batch.forEach(this::add);
+            batch.clear();
+        }
+    }
+}
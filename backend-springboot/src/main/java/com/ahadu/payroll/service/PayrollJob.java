@@ -0,0 +1,79 @@
+package com.ahadu.payroll.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a background payroll preview job, polled through GET /api/payroll/jobs/{id}.
+ * Counters are updated by the worker thread and read by request threads.
+ */
+public class PayrollJob {
+
+    private final String id;
+    private final String createdById;
+    private final long total;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+
+    private volatile String status = "QUEUED"; // QUEUED, RUNNING, COMPLETED, FAILED
+    private volatile String payrollRunId;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    public PayrollJob(String id, String createdById, long total) {
+        this.id = id;
+        this.createdById = createdById;
+        this.total = total;
+    }
+
+    void markRunning(String payrollRunId) {
+        this.payrollRunId = payrollRunId;
+        this.startedAt = LocalDateTime.now();
+        this.status = "RUNNING";
+    }
+
+    void addProcessed(long count) {
+        processed.addAndGet(count);
+    }
+
+    void addErrors(List<String> messages) {
+        errors.addAll(messages);
+    }
+
+    void markFinished(String status) {
+        this.finishedAt = LocalDateTime.now();
+        this.status = status;
+    }
+
+    public boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    /**
+     * Rows processed per second since the job started.
+     */
+    public double getThroughputPerSecond() {
+        if (startedAt == null) {
+            return 0;
+        }
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(Duration.between(startedAt, end).toMillis(), 1);
+        return processed.get() * 1000.0 / millis;
+    }
+
+    // Getters
+    public String getId() { return id; }
+    public String getCreatedById() { return createdById; }
+    public String getStatus() { return status; }
+    public String getPayrollRunId() { return payrollRunId; }
+    public long getTotal() { return total; }
+    public long getProcessed() { return processed.get(); }
+    public List<String> getErrors() { return errors; }
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+}
@@ -0,0 +1,113 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs payroll previews as background jobs so that large runs do not hold an HTTP
+ * request open. Jobs are processed in fixed-size chunks on the bounded payroll job
+ * executor and keep running if the client disconnects. Job state is kept in memory
+ * for an hour after the job finishes.
+ */
+@Service
+public class PayrollJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayrollJobService.class);
+
+    private static final int CHUNK_SIZE = 500;
+    private static final long RETENTION_MINUTES = 60;
+
+    private final PayrollService payrollService;
+    private final TaskExecutor payrollJobExecutor;
+    private final Map<String, PayrollJob> jobs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PayrollJobService(PayrollService payrollService,
+                             @Qualifier("payrollJobExecutor") TaskExecutor payrollJobExecutor) {
+        this.payrollService = payrollService;
+        this.payrollJobExecutor = payrollJobExecutor;
+    }
+
+    /**
+     * Queues a preview job and returns immediately.
+     *
+     * @throws org.springframework.core.task.TaskRejectedException if the job queue is full.
+     */
+    public PayrollJob submitPreview(LocalDate payPeriodStart, LocalDate payPeriodEnd,
+                                    List<DetailedPaycheckDto> payrollDetails, String creatorId) {
+        PayrollJob job = new PayrollJob(UUID.randomUUID().toString(), creatorId, payrollDetails.size());
+        jobs.put(job.getId(), job);
+        try {
+            payrollJobExecutor.execute(() -> runPreview(job, payPeriodStart, payPeriodEnd, payrollDetails));
+        } catch (RuntimeException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        return job;
+    }
+
+    public Optional<PayrollJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    private void runPreview(PayrollJob job, LocalDate payPeriodStart, LocalDate payPeriodEnd,
+                            List<DetailedPaycheckDto> payrollDetails) {
+        PayrollRun payrollRun = null;
+        try {
+            payrollRun = payrollService.startDraftRun(payPeriodStart, payPeriodEnd, job.getCreatedById());
+            job.markRunning(payrollRun.getId());
+
+            PayrollRunTotals totals = new PayrollRunTotals();
+            for (int from = 0; from < payrollDetails.size(); from += CHUNK_SIZE) {
+                List<DetailedPaycheckDto> chunk = payrollDetails.subList(from, Math.min(from + CHUNK_SIZE, payrollDetails.size()));
+                List<String> errors = new ArrayList<>();
+                totals.addAll(payrollService.previewChunk(payrollRun, chunk, errors));
+                job.addErrors(errors);
+                job.addProcessed(chunk.size());
+            }
+
+            payrollService.completeDraftRun(payrollRun, totals);
+            job.markFinished("COMPLETED");
+        } catch (RuntimeException e) {
+            logger.error("Payroll job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.addErrors(List.of("Job failed: " + e.getMessage()));
+            if (payrollRun != null) {
+                abandon(job, payrollRun.getId());
+            }
+            job.markFinished("FAILED");
+        }
+    }
+
+    private void abandon(PayrollJob job, String payrollRunId) {
+        try {
+            payrollService.abandonDraftRun(payrollRunId);
+        } catch (RuntimeException e) {
+            logger.error("Could not remove the partial payroll run {} of failed job {}: {}", payrollRunId, job.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Drops finished jobs once they are older than the retention period.
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000)
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(RETENTION_MINUTES);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+}
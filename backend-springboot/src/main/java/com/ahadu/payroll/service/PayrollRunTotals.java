@@ -0,0 +1,122 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayrollRun;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+/**
+ * Running gross, deduction and net totals of a payroll run.
+ * Lets totals be accumulated chunk by chunk instead of re-reducing the full paycheck list.
+ * Totals are kept in {@link Money} minor units and only turned into BigDecimal when applied
+ * to the run. If an amount has more than 2 decimals or a sum overflows a long, the totals
+ * switch to BigDecimal for the rest of the run. Not thread-safe; each run is accumulated by a
+ * single thread.
+ */
+public class PayrollRunTotals {
+
+    private long grossPay;
+    private long deductions;
+    private long netPay;
+    private long paycheckCount;
+
+    // Set once the totals no longer fit in minor units; from then on only these are used
+    private BigDecimal exactGrossPay;
+    private BigDecimal exactDeductions;
+    private BigDecimal exactNetPay;
+
+    public static PayrollRunTotals of(Collection<Paycheck> paychecks) {
+        PayrollRunTotals totals = new PayrollRunTotals();
+        paychecks.forEach(totals::add);
+        return totals;
+    }
+
+    /**
+     * Adds a paycheck's amounts. Paycheck amounts are normally stored with 2 decimals, so
+     * the conversion to minor units is exact; any other amount is summed in BigDecimal.
+     */
+    public PayrollRunTotals add(Paycheck paycheck) {
+        long grossPayMinor = Money.exact(paycheck.getGrossPay());
+        long deductionsMinor = Money.exact(paycheck.getTotalDeductions());
+        long netPayMinor = Money.exact(paycheck.getNetPay());
+        if (grossPayMinor == Money.UNREPRESENTABLE || deductionsMinor == Money.UNREPRESENTABLE
+                || netPayMinor == Money.UNREPRESENTABLE || !addMinorUnits(grossPayMinor, deductionsMinor, netPayMinor)) {
+            addExact(orZero(paycheck.getGrossPay()), orZero(paycheck.getTotalDeductions()), orZero(paycheck.getNetPay()));
+        }
+        paycheckCount++;
+        return this;
+    }
+
+    public PayrollRunTotals add(long grossPayMinor, long deductionsMinor, long netPayMinor) {
+        if (!addMinorUnits(grossPayMinor, deductionsMinor, netPayMinor)) {
+            addExact(Money.toBigDecimal(grossPayMinor), Money.toBigDecimal(deductionsMinor), Money.toBigDecimal(netPayMinor));
+        }
+        paycheckCount++;
+        return this;
+    }
+
+    public PayrollRunTotals addAll(PayrollRunTotals other) {
+        if (other.exactGrossPay != null || !addMinorUnits(other.grossPay, other.deductions, other.netPay)) {
+            addExact(other.getExactGrossPay(), other.getExactDeductions(), other.getExactNetPay());
+        }
+        paycheckCount += other.paycheckCount;
+        return this;
+    }
+
+    /**
+     * Adds to the fixed-point totals. Returns false, leaving them untouched, if the totals are
+     * already kept in BigDecimal or a sum would overflow.
+     */
+    private boolean addMinorUnits(long grossPayMinor, long deductionsMinor, long netPayMinor) {
+        if (exactGrossPay != null) {
+            return false;
+        }
+        try {
+            long newGrossPay = Money.add(grossPay, grossPayMinor);
+            long newDeductions = Money.add(deductions, deductionsMinor);
+            long newNetPay = Money.add(netPay, netPayMinor);
+            grossPay = newGrossPay;
+            deductions = newDeductions;
+            netPay = newNetPay;
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private void addExact(BigDecimal grossPayAmount, BigDecimal deductionsAmount, BigDecimal netPayAmount) {
+        if (exactGrossPay == null) {
+            exactGrossPay = Money.toBigDecimal(grossPay);
+            exactDeductions = Money.toBigDecimal(deductions);
+            exactNetPay = Money.toBigDecimal(netPay);
+        }
+        exactGrossPay = exactGrossPay.add(grossPayAmount);
+        exactDeductions = exactDeductions.add(deductionsAmount);
+        exactNetPay = exactNetPay.add(netPayAmount);
+    }
+
+    private BigDecimal getExactGrossPay() { return exactGrossPay != null ? exactGrossPay : Money.toBigDecimal(grossPay); }
+    private BigDecimal getExactDeductions() { return exactDeductions != null ? exactDeductions : Money.toBigDecimal(deductions); }
+    private BigDecimal getExactNetPay() { return exactNetPay != null ? exactNetPay : Money.toBigDecimal(netPay); }
+
+    /**
+     * Copies the totals, rounded to 2 decimals, and the paycheck count onto the run.
+     */
+    public void applyTo(PayrollRun payrollRun) {
+        payrollRun.setTotalGrossPay(getGrossPay());
+        payrollRun.setTotalDeductions(getDeductions());
+        payrollRun.setTotalNetPay(getNetPay());
+        payrollRun.setPaycheckCount(paycheckCount);
+    }
+
+    public BigDecimal getGrossPay() { return getExactGrossPay().setScale(Money.SCALE, RoundingMode.HALF_UP); }
+    public BigDecimal getDeductions() { return getExactDeductions().setScale(Money.SCALE, RoundingMode.HALF_UP); }
+    public BigDecimal getNetPay() { return getExactNetPay().setScale(Money.SCALE, RoundingMode.HALF_UP); }
+    public long getPaycheckCount() { return paycheckCount; }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -3,150 +3,552 @@ package com.ahadu.payroll.service;
 import com.ahadu.payroll.model.*;
 import com.ahadu.payroll.repository.*;
 import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.payload.PaycheckTotals;
+import com.ahadu.payroll.payload.PayrollPeriodTotals;
+import com.ahadu.payroll.payload.PayrollVarianceReport;
+import com.ahadu.payroll.payload.PayslipPage;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class PayrollService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PayrollService.class);
+
+    // Compare-and-set attempts when taking a recompute's difference back off the run totals
+    private static final int REVERT_TOTALS_ATTEMPTS = 10;
+
     private final PayrollRunRepository payrollRunRepository;
     private final PaycheckRepository paycheckRepository;
     private final UserRepository userRepository;
+    private final SalaryComponentRepository salaryComponentRepository;
+    private final PayrollCalculator payrollCalculator;
+    private final LatestPayslipService latestPayslipService;
+    private final PayslipService payslipService;
+    private final YearToDateService yearToDateService;
 
     @Autowired
-    public PayrollService(PayrollRunRepository payrollRunRepository, PaycheckRepository paycheckRepository, UserRepository userRepository) {
+    public PayrollService(PayrollRunRepository payrollRunRepository, PaycheckRepository paycheckRepository, UserRepository userRepository,
+                          SalaryComponentRepository salaryComponentRepository, PayrollCalculator payrollCalculator,
+                          LatestPayslipService latestPayslipService, PayslipService payslipService,
+                          YearToDateService yearToDateService) {
         this.payrollRunRepository = payrollRunRepository;
         this.paycheckRepository = paycheckRepository;
         this.userRepository = userRepository;
+        this.salaryComponentRepository = salaryComponentRepository;
+        this.payrollCalculator = payrollCalculator;
+        this.latestPayslipService = latestPayslipService;
+        this.payslipService = payslipService;
+        this.yearToDateService = yearToDateService;
     }
 
-    // New method for fetching payslips by employee ID
-    public List<Paycheck> getPaychecksByEmployeeId(String employeeId) {
-        return paycheckRepository.findByEmployeeId(employeeId);
+    /**
+     * Returns one page of an employee's payslips, newest pay period first, optionally limited
+     * to a calendar year (by pay period start) and a status.
+     *
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public PayslipPage getPayslipPage(String employeeId, Integer year, String status, String cursor, int size) {
+        LocalDate periodFrom = year != null ? LocalDate.of(year, 1, 1) : null;
+        LocalDate periodUntil = year != null ? LocalDate.of(year + 1, 1, 1) : null;
+        LocalDate afterStart = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterStart = LocalDate.parse(position[0]);
+            afterId = position[1];
+        }
+
+        // One extra row tells whether there is a next page without a count query
+        List<Paycheck> payslips = paycheckRepository.findPayslipPage(employeeId, periodFrom, periodUntil, status,
+                afterStart, afterId, size + 1);
+        String nextCursor = null;
+        if (payslips.size() > size) {
+            payslips = payslips.subList(0, size);
+            Paycheck last = payslips.get(size - 1);
+            nextCursor = encodeCursor(last.getPayPeriodStart(), last.getId());
+        }
+        return new PayslipPage(payslips, nextCursor);
     }
 
-    public List<PayrollRun> getAllPayrollRuns() {
-        return payrollRunRepository.findAll();
+    private static String encodeCursor(LocalDate payPeriodStart, String id) {
+        String position = payPeriodStart + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length == 2) {
+                LocalDate.parse(position[0]);
+                return position;
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid payslip cursor.");
+    }
+
+    /**
+     * Lists payroll run summaries, optionally only those in the given status.
+     */
+    public Page<PayrollRun> getPayrollRunSummaries(String status, Pageable pageable) {
+        return status == null
+                ? payrollRunRepository.findSummaries(pageable)
+                : payrollRunRepository.findSummariesByStatus(status, pageable);
     }
 
     public Optional<PayrollRun> getPayrollRunById(String id) {
         return payrollRunRepository.findById(id);
     }
 
-    public PayrollRun finalizePayroll(String payrollRunId, String approverId) {
-        PayrollRun payrollRun = payrollRunRepository.findById(payrollRunId)
-            .orElseThrow(() -> new IllegalArgumentException("Payroll Run not found with ID: " + payrollRunId));
+    public Page<Paycheck> getPaychecksByPayrollRunId(String payrollRunId, Pageable pageable) {
+        return paycheckRepository.findByPayrollRunId(payrollRunId, pageable);
+    }
 
-        if (!"DRAFT".equals(payrollRun.getStatus())) {
-            throw new IllegalArgumentException("Only 'DRAFT' payrolls can be finalized.");
+    /**
+     * Recomputes a run's totals and paycheck count from its stored paychecks with a single
+     * server-side aggregation, and writes them back onto the run. Repairs runs whose stored
+     * totals no longer match their paychecks.
+     */
+    public PayrollRun refreshRunTotals(String payrollRunId) {
+        PaycheckTotals totals = paycheckRepository.sumTotalsByPayrollRunIds(List.of(payrollRunId)).stream()
+                .findFirst()
+                .orElseGet(() -> new PaycheckTotals(payrollRunId));
+        return payrollRunRepository.updateTotals(payrollRunId, totals)
+                .orElseThrow(() -> new IllegalArgumentException("Payroll Run not found with ID: " + payrollRunId));
+    }
+
+    /**
+     * Totals of every run whose pay period starts between {@code from} and {@code to}
+     * (inclusive), per run and combined. All runs are summed in one aggregation.
+     */
+    public PayrollPeriodTotals getPeriodTotals(LocalDate from, LocalDate to) {
+        List<String> payrollRunIds = payrollRunRepository.findIdsByPayPeriodStartBetween(from, to).stream()
+                .map(PayrollRun::getId)
+                .collect(Collectors.toList());
+        List<PaycheckTotals> runs = payrollRunIds.isEmpty()
+                ? List.of()
+                : paycheckRepository.sumTotalsByPayrollRunIds(payrollRunIds);
+        PaycheckTotals total = new PaycheckTotals();
+        runs.forEach(total::add);
+        return new PayrollPeriodTotals(from, to, runs, total);
+    }
+
+    /**
+     * Lists the employees whose net pay in a run (normally a DRAFT awaiting approval) moved by
+     * more than {@code thresholdPercent} compared with the latest APPROVED or PAID run before
+     * it. Only the two run summaries are read here; the comparison itself is one aggregation.
+     */
+    public PayrollVarianceReport getNetPayVariance(String payrollRunId, BigDecimal thresholdPercent) {
+        if (thresholdPercent.signum() < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative.");
         }
-        
-        if (payrollRun.getCreatedById().equals(approverId)) {
-            throw new IllegalStateException("The creator of the payroll cannot finalize it. Another admin must approve.");
+        PayrollRun run = payrollRunRepository.findSummaryById(payrollRunId)
+                .orElseThrow(() -> new IllegalArgumentException("Payroll Run not found with ID: " + payrollRunId));
+        Optional<PayrollRun> previousRun = payrollRunRepository.findPreviousSummary(run.getPayPeriodStart(), List.of("APPROVED", "PAID"));
+        if (previousRun.isEmpty()) {
+            return new PayrollVarianceReport(payrollRunId, null, thresholdPercent, List.of());
         }
+        String previousRunId = previousRun.get().getId();
+        return new PayrollVarianceReport(payrollRunId, previousRunId, thresholdPercent,
+                paycheckRepository.findNetPayOutliers(payrollRunId, previousRunId, thresholdPercent));
+    }
 
-        payrollRun.setStatus("APPROVED");
-        payrollRun.setApprovedById(approverId);
-        payrollRun.setApprovedAt(LocalDateTime.now());
-        
-        payrollRun.getPaychecks().forEach(paycheck -> paycheck.setStatus("APPROVED"));
-        paycheckRepository.saveAll(payrollRun.getPaychecks());
+    /**
+     * Approves a DRAFT payroll run. The run is moved to APPROVED with one conditional
+     * findAndModify (which also enforces the maker-checker rule), and all of its paychecks
+     * are updated with one updateMany, regardless of the size of the run.
+     */
+    public PayrollRun finalizePayroll(String payrollRunId, String approverId) {
+        Update approve = new Update()
+                .set("status", "APPROVED")
+                .set("approvedById", approverId)
+                .set("approvedAt", LocalDateTime.now());
+
+        PayrollRun approvedRun = payrollRunRepository
+                .updateIfStatus(payrollRunId, "DRAFT", Criteria.where("createdById").ne(approverId), approve)
+                .orElseThrow(() -> rejectedTransition(payrollRunId, "DRAFT", approverId));
 
-        return payrollRunRepository.save(payrollRun);
+        paycheckRepository.updateStatusByPayrollRunId(payrollRunId, "APPROVED");
+        latestPayslipService.publishRun(payrollRunId);
+        payslipService.prerenderRun(payrollRunId);
+        return approvedRun;
     }
 
+    /**
+     * Marks an APPROVED payroll run as PAID with one conditional update on the run and
+     * one updateMany on its paychecks, then adds the paychecks to the year-to-date totals.
+     * If that last step fails, the run stays PAID and the totals are completed in the background.
+     */
     public PayrollRun markAsPaid(String payrollRunId) {
+        PayrollRun paidRun = payrollRunRepository
+                .updateIfStatus(payrollRunId, "APPROVED", null, new Update().set("status", "PAID").set("ytdApplied", false))
+                .orElseThrow(() -> rejectedTransition(payrollRunId, "APPROVED", null));
+
+        paycheckRepository.updateStatusByPayrollRunId(payrollRunId, "PAID");
+        latestPayslipService.publishRun(payrollRunId);
+        try {
+            yearToDateService.recordPaidRun(payrollRunId);
+        } catch (RuntimeException e) {
+            logger.error("Recording the year-to-date totals of paid run {} failed; it will be retried: {}", payrollRunId, e.getMessage(), e);
+        }
+        return paidRun;
+    }
+
+    /**
+     * Works out why a conditional status transition matched no run. Only runs on the failure path.
+     */
+    private RuntimeException rejectedTransition(String payrollRunId, String expectedStatus, String approverId) {
+        Optional<PayrollRun> payrollRun = payrollRunRepository.findById(payrollRunId);
+        if (payrollRun.isEmpty()) {
+            return new IllegalArgumentException("Payroll Run not found with ID: " + payrollRunId);
+        }
+        if (!expectedStatus.equals(payrollRun.get().getStatus())) {
+            return new IllegalArgumentException("DRAFT".equals(expectedStatus)
+                    ? "Only 'DRAFT' payrolls can be finalized."
+                    : "Only 'APPROVED' payrolls can be marked as paid.");
+        }
+        if (approverId != null && approverId.equals(payrollRun.get().getCreatedById())) {
+            return new IllegalStateException("The creator of the payroll cannot finalize it. Another admin must approve.");
+        }
+        return new IllegalStateException("Payroll Run " + payrollRunId + " was modified concurrently. Please retry.");
+    }
+
+    public PayrollRun previewPayrollWithDetails(LocalDate payPeriodStart, LocalDate payPeriodEnd, List<DetailedPaycheckDto> payrollDetails, String creatorId) {
+        return commitPreview(computePreview(payPeriodStart, payPeriodEnd, payrollDetails, creatorId));
+    }
+
+    /**
+     * Computes a preview entirely in memory. Nothing is written: the returned DRAFT run has no
+     * ID, carries its totals and its paychecks, and can be saved later with {@link #commitPreview}.
+     */
+    public PayrollRun computePreview(LocalDate payPeriodStart, LocalDate payPeriodEnd, List<DetailedPaycheckDto> payrollDetails, String creatorId) {
+        Map<String, User> employeesById = findEmployeesForPreview(payrollDetails);
+        List<String> unknownIds = findUnknownIds(payrollDetails, employeesById);
+        if (!unknownIds.isEmpty()) {
+            throw new IllegalArgumentException("Employees not found with IDs: " + String.join(", ", unknownIds));
+        }
+
+        PayrollRun payrollRun = newDraftRun(payPeriodStart, payPeriodEnd, creatorId);
+        List<Paycheck> paychecks = payrollDetails.stream()
+                .map(dto -> buildPaycheck(dto, employeesById.get(dto.getEmployeeId()), payrollRun))
+                .collect(Collectors.toList());
+        PayrollRunTotals.of(paychecks).applyTo(payrollRun);
+        payrollRun.setPaychecks(paychecks);
+        return payrollRun;
+    }
+
+    /**
+     * Saves a run computed by {@link #computePreview} as it is, without recalculating it.
+     */
+    public PayrollRun commitPreview(PayrollRun preview) {
+        List<Paycheck> paychecks = preview.getPaychecks();
+        preview.setPaychecks(null);
+        return insertRunWithPaychecks(preview, paychecks);
+    }
+
+    /**
+     * Saves a new, empty run so that paychecks can be attached to it chunk by chunk. The run is
+     * in GENERATING until {@link #completeDraftRun} moves it to DRAFT, so it cannot be finalized,
+     * paid or recomputed while its paychecks and totals are incomplete.
+     */
+    public PayrollRun startDraftRun(LocalDate payPeriodStart, LocalDate payPeriodEnd, String creatorId) {
+        PayrollRun payrollRun = newDraftRun(payPeriodStart, payPeriodEnd, creatorId);
+        payrollRun.setStatus("GENERATING");
+        return payrollRunRepository.insert(payrollRun);
+    }
+
+    /**
+     * Builds and saves the paychecks of one chunk of preview rows for a run started with
+     * {@link #startDraftRun}. Rows that reference unknown employees are skipped and
+     * reported through {@code errors}.
+     *
+     * @return The totals of the paychecks saved for this chunk.
+     */
+    public PayrollRunTotals previewChunk(PayrollRun payrollRun, List<DetailedPaycheckDto> chunk, List<String> errors) {
+        Map<String, User> employeesById = findEmployeesForPreview(chunk);
+        findUnknownIds(chunk, employeesById)
+                .forEach(id -> errors.add("Employee not found with ID: " + id));
+
+        List<Paycheck> paychecks = chunk.stream()
+                .filter(dto -> employeesById.containsKey(dto.getEmployeeId()))
+                .map(dto -> buildPaycheck(dto, employeesById.get(dto.getEmployeeId()), payrollRun))
+                .collect(Collectors.toList());
+        return PayrollRunTotals.of(paycheckRepository.insertUnordered(paychecks));
+    }
+
+    /**
+     * Stores the accumulated totals on a run started with {@link #startDraftRun} and moves it
+     * from GENERATING to DRAFT with one conditional update, leaving every other field as stored.
+     *
+     * @throws IllegalStateException if the run was deleted while it was being generated.
+     */
+    public PayrollRun completeDraftRun(PayrollRun payrollRun, PayrollRunTotals totals) {
+        totals.applyTo(payrollRun);
+        Update complete = new Update()
+                .set("status", "DRAFT")
+                .set("totalGrossPay", payrollRun.getTotalGrossPay())
+                .set("totalDeductions", payrollRun.getTotalDeductions())
+                .set("totalNetPay", payrollRun.getTotalNetPay())
+                .set("paycheckCount", payrollRun.getPaycheckCount());
+        return payrollRunRepository.updateIfStatus(payrollRun.getId(), "GENERATING", null, complete)
+                .orElseThrow(() -> new IllegalStateException("Payroll Run " + payrollRun.getId() + " was deleted while it was being generated."));
+    }
+
+    /**
+     * Removes a run started with {@link #startDraftRun} whose generation failed, together with
+     * the paychecks already saved for it.
+     */
+    public void abandonDraftRun(String payrollRunId) {
+        paycheckRepository.deleteByPayrollRunId(payrollRunId);
+        payrollRunRepository.deleteById(payrollRunId);
+    }
+
+    /**
+     * Recomputes one employee's paycheck in a DRAFT run from new inputs, without touching the
+     * rest of the run. The run totals are moved by the difference with one compare-and-set
+     * update and the paycheck gets one write, instead of re-reducing every paycheck.
+     * The new amounts come from the request alone, so the paycheck's component earnings are
+     * cleared and its payslip shows the base salary and commission given here.
+     */
+    public PayrollRun recomputePaycheck(String payrollRunId, String employeeId, DetailedPaycheckDto details) {
         PayrollRun payrollRun = payrollRunRepository.findById(payrollRunId)
                 .orElseThrow(() -> new IllegalArgumentException("Payroll Run not found with ID: " + payrollRunId));
-        
-        if (!"APPROVED".equals(payrollRun.getStatus())) {
-            throw new IllegalArgumentException("Only 'APPROVED' payrolls can be marked as paid.");
+        if (!"DRAFT".equals(payrollRun.getStatus())) {
+            throw new IllegalArgumentException("Only 'DRAFT' payrolls can be recomputed.");
         }
-        
-        payrollRun.setStatus("PAID");
-        payrollRun.getPaychecks().forEach(paycheck -> paycheck.setStatus("PAID"));
-        paycheckRepository.saveAll(payrollRun.getPaychecks());
+        Paycheck existing = paycheckRepository.findFirstByPayrollRunIdAndEmployeeId(payrollRunId, employeeId)
+                .orElseThrow(() -> new IllegalArgumentException("No paycheck for employee " + employeeId + " in payroll run " + payrollRunId));
+
+        Paycheck recomputed = new Paycheck();
+        recomputed.setId(existing.getId());
+        applyDetails(recomputed, details);
+
+        BigDecimal grossPayChange = recomputed.getGrossPay().subtract(orZero(existing.getGrossPay()));
+        BigDecimal deductionsChange = recomputed.getTotalDeductions().subtract(orZero(existing.getTotalDeductions()));
+        BigDecimal netPayChange = recomputed.getNetPay().subtract(orZero(existing.getNetPay()));
 
-        return payrollRunRepository.save(payrollRun);
+        // The totals are moved by a compare-and-set on the totals read above, then the paycheck by a
+        // compare-and-set on the amounts the difference was measured against. If the paycheck write
+        // does not go through, the difference is taken off the totals again, so every difference
+        // left in the totals belongs to exactly one paycheck write.
+        PayrollRun updatedRun = payrollRunRepository
+                .updateIfStatus(payrollRunId, "DRAFT", unchangedTotals(payrollRun),
+                        adjustTotals(payrollRun, grossPayChange, deductionsChange, netPayChange))
+                .orElseThrow(() -> new IllegalStateException("Payroll Run " + payrollRunId + " was modified concurrently. Please retry."));
+
+        boolean paycheckUpdated;
+        try {
+            paycheckUpdated = paycheckRepository.updateAmountsIfUnchanged(existing, recomputed);
+        } catch (RuntimeException e) {
+            revertTotals(payrollRunId, grossPayChange, deductionsChange, netPayChange);
+            throw e;
+        }
+        if (!paycheckUpdated) {
+            revertTotals(payrollRunId, grossPayChange, deductionsChange, netPayChange);
+            throw new IllegalStateException("The paycheck of employee " + employeeId + " was modified concurrently. Please retry.");
+        }
+        return updatedRun;
     }
-    
-    public PayrollRun previewPayrollWithDetails(LocalDate payPeriodStart, LocalDate payPeriodEnd, List<DetailedPaycheckDto> payrollDetails, String creatorId) {
+
+    /**
+     * Takes a recompute's difference back off the run totals after its paycheck write failed.
+     * Retried when the totals change in between, since other recomputes keep their own differences.
+     */
+    private void revertTotals(String payrollRunId, BigDecimal grossPayChange, BigDecimal deductionsChange, BigDecimal netPayChange) {
+        for (int attempt = 0; attempt < REVERT_TOTALS_ATTEMPTS; attempt++) {
+            Optional<PayrollRun> payrollRun = payrollRunRepository.findById(payrollRunId);
+            if (payrollRun.isEmpty()) {
+                return;
+            }
+            if (payrollRunRepository.updateIfStatus(payrollRunId, payrollRun.get().getStatus(), unchangedTotals(payrollRun.get()),
+                    adjustTotals(payrollRun.get(), grossPayChange.negate(), deductionsChange.negate(), netPayChange.negate())).isPresent()) {
+                return;
+            }
+        }
+        logger.error("Could not revert a failed paycheck recompute on the totals of payroll run {}; they no longer match its paychecks.", payrollRunId);
+    }
+
+    private static Criteria unchangedTotals(PayrollRun payrollRun) {
+        return Criteria.where("totalGrossPay").is(payrollRun.getTotalGrossPay())
+                .and("totalDeductions").is(payrollRun.getTotalDeductions())
+                .and("totalNetPay").is(payrollRun.getTotalNetPay());
+    }
+
+    private static Update adjustTotals(PayrollRun payrollRun, BigDecimal grossPayChange, BigDecimal deductionsChange, BigDecimal netPayChange) {
+        return new Update()
+                .set("totalGrossPay", orZero(payrollRun.getTotalGrossPay()).add(grossPayChange))
+                .set("totalDeductions", orZero(payrollRun.getTotalDeductions()).add(deductionsChange))
+                .set("totalNetPay", orZero(payrollRun.getTotalNetPay()).add(netPayChange));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private Paycheck buildPaycheck(DetailedPaycheckDto dto, User employee, PayrollRun payrollRun) {
+        Paycheck paycheck = new Paycheck();
+        paycheck.setPayrollRunId(payrollRun.getId());
+        paycheck.setEmployeeId(employee.getId());
+        paycheck.setEmployeeUsername(employee.getUsername());
+        paycheck.setPayPeriodStart(payrollRun.getPayPeriodStart());
+        paycheck.setPayPeriodEnd(payrollRun.getPayPeriodEnd());
+        paycheck.setStatus("DRAFT");
+        applyDetails(paycheck, dto);
+        return paycheck;
+    }
+
+    private void applyDetails(Paycheck paycheck, DetailedPaycheckDto dto) {
+        // Use values from the DTO directly
+        paycheck.setBaseSalary(dto.getBaseSalary());
+        paycheck.setCommissionAmount(dto.getCommissionAmount());
+        paycheck.setTaxDeduction(dto.getTaxDeduction());
+        paycheck.setProvidentFundDeduction(dto.getProvidentFundDeduction());
+        paycheck.setLatePenaltyDeduction(dto.getLatePenaltyDeduction());
+        paycheck.setAbsentPenaltyDeduction(dto.getAbsentPenaltyDeduction());
+
+        // Amounts with at most 2 decimals (the normal case) are summed in fixed point;
+        // anything finer, or sums that overflow, take the BigDecimal path so rounding stays identical.
+        long baseSalary = Money.exact(dto.getBaseSalary());
+        long commission = Money.exact(dto.getCommissionAmount());
+        long tax = Money.exact(dto.getTaxDeduction());
+        long providentFund = Money.exact(dto.getProvidentFundDeduction());
+        long latePenalty = Money.exact(dto.getLatePenaltyDeduction());
+        long absentPenalty = Money.exact(dto.getAbsentPenaltyDeduction());
+        if (baseSalary != Money.UNREPRESENTABLE && commission != Money.UNREPRESENTABLE && tax != Money.UNREPRESENTABLE
+                && providentFund != Money.UNREPRESENTABLE && latePenalty != Money.UNREPRESENTABLE
+                && absentPenalty != Money.UNREPRESENTABLE) {
+            try {
+                long grossPay = Money.add(baseSalary, commission);
+                long totalDeductions = Money.add(Money.add(tax, providentFund), Money.add(latePenalty, absentPenalty));
+                long netPay = Money.subtract(grossPay, totalDeductions);
+                paycheck.setGrossPay(Money.toBigDecimal(grossPay));
+                paycheck.setTotalDeductions(Money.toBigDecimal(totalDeductions));
+                paycheck.setNetPay(Money.toBigDecimal(netPay));
+                return;
+            } catch (ArithmeticException e) {
+                // Overflow; use the BigDecimal path below
+            }
+        }
+
+        BigDecimal grossPay = (dto.getBaseSalary() != null ? dto.getBaseSalary() : BigDecimal.ZERO)
+                                 .add(dto.getCommissionAmount() != null ? dto.getCommissionAmount() : BigDecimal.ZERO)
+                                 .setScale(2, RoundingMode.HALF_UP);
+        
+        BigDecimal totalDeductions = (dto.getTaxDeduction() != null ? dto.getTaxDeduction() : BigDecimal.ZERO)
+                                    .add(dto.getProvidentFundDeduction() != null ? dto.getProvidentFundDeduction() : BigDecimal.ZERO)
+                                    .add(dto.getLatePenaltyDeduction() != null ? dto.getLatePenaltyDeduction() : BigDecimal.ZERO)
+                                    .add(dto.getAbsentPenaltyDeduction() != null ? dto.getAbsentPenaltyDeduction() : BigDecimal.ZERO)
+                                    .setScale(2, RoundingMode.HALF_UP);
         
+        BigDecimal netPay = grossPay.subtract(totalDeductions).setScale(2, RoundingMode.HALF_UP);
+
+        paycheck.setGrossPay(grossPay);
+        paycheck.setTotalDeductions(totalDeductions);
+        paycheck.setNetPay(netPay);
+    }
+
+    /**
+     * Computes a DRAFT payroll run for every active employee on the server, using each
+     * employee's salary settings and the configured salary components.
+     */
+    public PayrollRun calculatePayroll(LocalDate payPeriodStart, LocalDate payPeriodEnd, String creatorId) {
+        List<User> activeEmployees = userRepository.findPayrollFieldsByStatus("Active");
+        List<SalaryComponent> components = salaryComponentRepository.findAll();
+
+        List<Paycheck> paychecks = payrollCalculator.calculate(activeEmployees, components, payPeriodStart, payPeriodEnd);
+
+        PayrollRun payrollRun = newDraftRun(payPeriodStart, payPeriodEnd, creatorId);
+        PayrollRunTotals.of(paychecks).applyTo(payrollRun);
+        return insertRunWithPaychecks(payrollRun, paychecks);
+    }
+
+    /**
+     * Resolves every employee referenced by the preview with a single projected query,
+     * instead of one findById round trip per row.
+     */
+    private Map<String, User> findEmployeesForPreview(List<DetailedPaycheckDto> payrollDetails) {
+        Set<String> employeeIds = payrollDetails.stream()
+                .map(DetailedPaycheckDto::getEmployeeId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        return userRepository.findPayrollFieldsByIdIn(employeeIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    /**
+     * Lists every distinct employee ID in the preview rows that was not resolved, so they
+     * can be reported together rather than failing on the first one.
+     */
+    private List<String> findUnknownIds(List<DetailedPaycheckDto> payrollDetails, Map<String, User> employeesById) {
+        return payrollDetails.stream()
+                .map(DetailedPaycheckDto::getEmployeeId)
+                .distinct()
+                .filter(id -> !employeesById.containsKey(id))
+                .collect(Collectors.toList());
+    }
+
+    private PayrollRun newDraftRun(LocalDate payPeriodStart, LocalDate payPeriodEnd, String creatorId) {
         PayrollRun payrollRun = new PayrollRun();
         payrollRun.setPayPeriodStart(payPeriodStart);
         payrollRun.setPayPeriodEnd(payPeriodEnd);
         payrollRun.setProcessedAt(LocalDateTime.now());
         payrollRun.setStatus("DRAFT");
         payrollRun.setCreatedById(creatorId);
-        
-        PayrollRun savedPayrollRun = payrollRunRepository.save(payrollRun);
-
-        List<Paycheck> paychecks = payrollDetails.stream().map(dto -> {
-            Optional<User> employeeOptional = userRepository.findById(dto.getEmployeeId());
-            if (employeeOptional.isEmpty()) {
-                throw new IllegalArgumentException("Employee not found with ID: " + dto.getEmployeeId());
-            }
-            User employee = employeeOptional.get();
-
-            Paycheck paycheck = new Paycheck();
-            paycheck.setPayrollRunId(savedPayrollRun.getId());
-            paycheck.setEmployeeId(employee.getId());
-            paycheck.setEmployeeUsername(employee.getUsername());
-            paycheck.setPayPeriodStart(payPeriodStart);
-            paycheck.setPayPeriodEnd(payPeriodEnd);
-            paycheck.setStatus("DRAFT");
-            
-            // Use values from the DTO directly
-            BigDecimal grossPay = (dto.getBaseSalary() != null ? dto.getBaseSalary() : BigDecimal.ZERO)
-                                     .add(dto.getCommissionAmount() != null ? dto.getCommissionAmount() : BigDecimal.ZERO)
-                                     .setScale(2, RoundingMode.HALF_UP);
-            
-            BigDecimal totalDeductions = (dto.getTaxDeduction() != null ? dto.getTaxDeduction() : BigDecimal.ZERO)
-                                        .add(dto.getProvidentFundDeduction() != null ? dto.getProvidentFundDeduction() : BigDecimal.ZERO)
-                                        .add(dto.getLatePenaltyDeduction() != null ? dto.getLatePenaltyDeduction() : BigDecimal.ZERO)
-                                        .add(dto.getAbsentPenaltyDeduction() != null ? dto.getAbsentPenaltyDeduction() : BigDecimal.ZERO)
-                                        .setScale(2, RoundingMode.HALF_UP);
-            
-            BigDecimal netPay = grossPay.subtract(totalDeductions).setScale(2, RoundingMode.HALF_UP);
-
-            paycheck.setGrossPay(grossPay);
-            paycheck.setTotalDeductions(totalDeductions);
-            paycheck.setNetPay(netPay);
-            paycheck.setCommissionAmount(dto.getCommissionAmount());
-            paycheck.setTaxDeduction(dto.getTaxDeduction());
-            paycheck.setProvidentFundDeduction(dto.getProvidentFundDeduction());
-            paycheck.setLatePenaltyDeduction(dto.getLatePenaltyDeduction());
-            paycheck.setAbsentPenaltyDeduction(dto.getAbsentPenaltyDeduction());
-            
-            return paycheck;
-        }).collect(Collectors.toList());
-
-        List<Paycheck> savedPaychecks = paycheckRepository.saveAll(paychecks);
-        
-        BigDecimal totalGross = savedPaychecks.stream().map(Paycheck::getGrossPay).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalDeductions = savedPaychecks.stream().map(Paycheck::getTotalDeductions).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal totalNet = savedPaychecks.stream().map(Paycheck::getNetPay).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return payrollRun;
+    }
 
-        savedPayrollRun.setTotalGrossPay(totalGross.setScale(2, RoundingMode.HALF_UP));
-        savedPayrollRun.setTotalDeductions(totalDeductions.setScale(2, RoundingMode.HALF_UP));
-        savedPayrollRun.setTotalNetPay(totalNet.setScale(2, RoundingMode.HALF_UP));
+    /**
+     * Persists a new run whose totals are already set. The run ID is generated here, so the
+     * paychecks can reference it before anything is written: the paychecks go first, in
+     * unordered bulk inserts, and the run itself is inserted once at the end. A failure part
+     * way therefore never leaves a run visible with missing paychecks.
+     */
+    private PayrollRun insertRunWithPaychecks(PayrollRun payrollRun, List<Paycheck> paychecks) {
+        payrollRun.setId(new ObjectId().toHexString());
+        paychecks.forEach(paycheck -> paycheck.setPayrollRunId(payrollRun.getId()));
+        List<Paycheck> savedPaychecks = paycheckRepository.insertUnordered(paychecks);
+        PayrollRun savedPayrollRun = payrollRunRepository.insert(payrollRun);
         savedPayrollRun.setPaychecks(savedPaychecks);
-
-        return payrollRunRepository.save(savedPayrollRun);
+        return savedPayrollRun;
     }
     
     public void deletePayrollRun(String id) {
-        if (payrollRunRepository.existsById(id)) {
+        Optional<PayrollRun> payrollRun = payrollRunRepository.findById(id);
+        if (payrollRun.isPresent()) {
+            if ("PAID".equals(payrollRun.get().getStatus())) {
+                // Compensate the year-to-date totals while the paychecks still exist
+                yearToDateService.reversePaidRun(id);
+            }
+            List<String> pointedEmployees = latestPayslipService.findEmployeesPointingToRun(id);
+            payslipService.deleteByPayrollRunId(id);
             paycheckRepository.deleteByPayrollRunId(id);
             payrollRunRepository.deleteById(id);
+            latestPayslipService.rebuildPointers(pointedEmployees);
         } else {
             throw new IllegalArgumentException("Payroll run not found with ID: " + id);
         }
@@ -0,0 +1,153 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PaycheckEarning;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renders a {@link Paycheck} as a one-page A4 PDF payslip.
+ * Stateless and thread-safe; each call builds its own document.
+ */
+@Component
+public class PayslipRenderer {
+
+    private static final PDFont REGULAR = PDType1Font.HELVETICA;
+    private static final PDFont BOLD = PDType1Font.HELVETICA_BOLD;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    private static final float MARGIN = 56;
+    private static final float LINE_HEIGHT = 18;
+
+    public byte[] render(Paycheck paycheck) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            render(paycheck, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not render payslip " + paycheck.getId(), e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the payslip PDF to the stream. The stream is not closed.
+     */
+    public void render(Paycheck paycheck, OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A4);
+            document.addPage(page);
+            float width = page.getMediaBox().getWidth();
+            float y = page.getMediaBox().getHeight() - MARGIN;
+
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                text(content, BOLD, 20, MARGIN, y, "Ahadu Payroll - Payslip");
+                y -= LINE_HEIGHT * 2;
+                y = field(content, y, "Employee", paycheck.getEmployeeUsername());
+                y = field(content, y, "Employee ID", paycheck.getEmployeeId());
+                y = field(content, y, "Pay Period", payPeriod(paycheck));
+                y = field(content, y, "Payslip ID", paycheck.getId());
+                y -= LINE_HEIGHT;
+
+                text(content, BOLD, 12, MARGIN, y, "Earnings");
+                y -= LINE_HEIGHT;
+                if (paycheck.getBaseSalary() != null) {
+                    y = amount(content, width, y, REGULAR, "Base Salary", paycheck.getBaseSalary());
+                    if (paycheck.getEarnings() != null) {
+                        for (PaycheckEarning earning : paycheck.getEarnings()) {
+                            y = amount(content, width, y, REGULAR, earning.getName() != null ? earning.getName() : "Allowance", earning.getAmount());
+                        }
+                    }
+                } else {
+                    // Paychecks stored before the base salary was kept only have the combined amount
+                    y = amount(content, width, y, REGULAR, "Base Salary and Allowances",
+                            orZero(paycheck.getGrossPay()).subtract(orZero(paycheck.getCommissionAmount())));
+                }
+                y = amount(content, width, y, REGULAR, "Commission", paycheck.getCommissionAmount());
+                y = amount(content, width, y, BOLD, "Gross Pay", paycheck.getGrossPay());
+                y -= LINE_HEIGHT;
+
+                text(content, BOLD, 12, MARGIN, y, "Deductions");
+                y -= LINE_HEIGHT;
+                y = amount(content, width, y, REGULAR, "Income Tax", paycheck.getTaxDeduction());
+                y = amount(content, width, y, REGULAR, "Provident Fund", paycheck.getProvidentFundDeduction());
+                y = amount(content, width, y, REGULAR, "Late Penalty", paycheck.getLatePenaltyDeduction());
+                y = amount(content, width, y, REGULAR, "Absence Penalty", paycheck.getAbsentPenaltyDeduction());
+                y = amount(content, width, y, BOLD, "Total Deductions", paycheck.getTotalDeductions());
+                y -= LINE_HEIGHT;
+
+                amount(content, width, y, BOLD, "Net Pay", paycheck.getNetPay());
+            }
+            // PDDocument.save closes the stream it writes to; keep the caller's stream open
+            document.save(new FilterOutputStream(out) {
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    out.write(bytes, offset, length);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            });
+        }
+    }
+
+    private static String payPeriod(Paycheck paycheck) {
+        if (paycheck.getPayPeriodStart() == null || paycheck.getPayPeriodEnd() == null) {
+            return "";
+        }
+        return DATE_FORMAT.format(paycheck.getPayPeriodStart()) + " - " + DATE_FORMAT.format(paycheck.getPayPeriodEnd());
+    }
+
+    private static float field(PDPageContentStream content, float y, String label, String value) throws IOException {
+        text(content, BOLD, 11, MARGIN, y, label + ":");
+        text(content, REGULAR, 11, MARGIN + 110, y, value != null ? value : "");
+        return y - LINE_HEIGHT;
+    }
+
+    // Label on the left, amount right-aligned at the right margin
+    private static float amount(PDPageContentStream content, float pageWidth, float y, PDFont font, String label,
+                                BigDecimal value) throws IOException {
+        String formatted = String.format("%,.2f", orZero(value));
+        text(content, font, 11, MARGIN + 12, y, label);
+        float textWidth = font.getStringWidth(formatted) / 1000 * 11;
+        text(content, font, 11, pageWidth - MARGIN - textWidth, y, formatted);
+        return y - LINE_HEIGHT;
+    }
+
+    private static void text(PDPageContentStream content, PDFont font, float size, float x, float y, String text)
+            throws IOException {
+        content.beginText();
+        content.setFont(font, size);
+        content.newLineAtOffset(x, y);
+        content.showText(printable(text));
+        content.endText();
+    }
+
+    // The standard fonts only cover Latin-1; anything else is shown as '?'
+    private static String printable(String text) {
+        StringBuilder printable = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            printable.append((c >= 0x20 && c <= 0x7E) || (c >= 0xA0 && c <= 0xFF) ? c : '?');
+        }
+        return printable.toString();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
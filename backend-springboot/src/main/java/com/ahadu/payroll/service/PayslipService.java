@@ -0,0 +1,185 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayslipDocument;
+import com.ahadu.payroll.repository.PaycheckRepository;
+import com.ahadu.payroll.repository.PayslipDocumentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * PDF payslips of APPROVED and PAID paychecks.
+ * When a run is finalized its payslips are rendered once in the background and stored with
+ * a content hash, so downloads on payday only read stored bytes. A payslip that is not
+ * stored yet (rendering still running, or it failed) is rendered and stored on first download.
+ * Payslips are only ever inserted, never replaced: when the background render and a download
+ * render the same payslip, the first one stored is the one every download is served.
+ */
+@Service
+public class PayslipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayslipService.class);
+
+    // Rendered payslips written per bulk insert
+    private static final int BATCH_SIZE = 200;
+
+    private final PaycheckRepository paycheckRepository;
+    private final PayslipDocumentRepository payslipDocumentRepository;
+    private final PayslipRenderer payslipRenderer;
+    private final TaskExecutor payslipRenderExecutor;
+
+    @Autowired
+    public PayslipService(PaycheckRepository paycheckRepository, PayslipDocumentRepository payslipDocumentRepository,
+                          PayslipRenderer payslipRenderer,
+                          @Qualifier("payslipRenderExecutor") TaskExecutor payslipRenderExecutor) {
+        this.paycheckRepository = paycheckRepository;
+        this.payslipDocumentRepository = payslipDocumentRepository;
+        this.payslipRenderer = payslipRenderer;
+        this.payslipRenderExecutor = payslipRenderExecutor;
+    }
+
+    /**
+     * Queues the payslips of a finalized run for rendering. Never fails the caller: if the
+     * pool is saturated the payslips are rendered on first download instead.
+     */
+    public void prerenderRun(String payrollRunId) {
+        try {
+            payslipRenderExecutor.execute(() -> renderRun(payrollRunId));
+        } catch (TaskRejectedException e) {
+            logger.warn("Payslip rendering queue is full; payslips of run {} will be rendered on download.", payrollRunId);
+        }
+    }
+
+    private void renderRun(String payrollRunId) {
+        long started = System.currentTimeMillis();
+        Set<String> rendered = payslipDocumentRepository.findIdsByPayrollRunId(payrollRunId).stream()
+                .map(PayslipDocument::getPaycheckId)
+                .collect(Collectors.toSet());
+        long count = 0;
+        List<PayslipDocument> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Paycheck> paychecks = paycheckRepository.streamByPayrollRunId(payrollRunId)) {
+            for (Paycheck paycheck : (Iterable<Paycheck>) paychecks::iterator) {
+                if (rendered.contains(paycheck.getId())) {
+                    continue;
+                }
+                batch.add(toDocument(paycheck));
+                if (batch.size() == BATCH_SIZE) {
+                    count += payslipDocumentRepository.insertAllIfAbsent(batch);
+                    batch.clear();
+                }
+            }
+            count += payslipDocumentRepository.insertAllIfAbsent(batch);
+            logger.info("Rendered {} payslips of run {} in {} ms.", count, payrollRunId, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Rendering payslips of run {} failed after {} payslips: {}", payrollRunId, count, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the stored payslip of a paycheck, rendering and storing it first if needed.
+     * DRAFT paychecks have no payslip.
+     */
+    public Optional<PayslipDocument> getPayslip(String paycheckId) {
+        Optional<PayslipDocument> stored = payslipDocumentRepository.findById(paycheckId);
+        if (stored.isPresent()) {
+            return stored;
+        }
+        return paycheckRepository.findById(paycheckId)
+                .filter(paycheck -> "APPROVED".equals(paycheck.getStatus()) || "PAID".equals(paycheck.getStatus()))
+                .map(paycheck -> payslipDocumentRepository.insertIfAbsent(toDocument(paycheck)));
+    }
+
+    /**
+     * Writes the payslips of every paycheck in a run into a ZIP archive, one PDF per entry.
+     * The stored payslips are read through a Mongo cursor and copied into the archive stream,
+     * so the archive holds the same bytes as the single downloads. Payslips that are not stored
+     * yet are rendered and stored first. Only paycheck IDs are kept in memory.
+     * The stream is finished but not closed.
+     */
+    public void writeRunArchive(String payrollRunId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // The PDF content streams are already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        Set<String> written = new HashSet<>();
+        try (Stream<PayslipDocument> documents = payslipDocumentRepository.streamByPayrollRunId(payrollRunId)) {
+            for (PayslipDocument document : (Iterable<PayslipDocument>) documents::iterator) {
+                writeEntry(zip, document);
+                written.add(document.getPaycheckId());
+            }
+        }
+
+        List<String> missing;
+        try (Stream<Paycheck> paychecks = paycheckRepository.streamIdsByPayrollRunId(payrollRunId)) {
+            missing = paychecks.map(Paycheck::getId).filter(id -> !written.contains(id)).collect(Collectors.toList());
+        }
+        for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+            for (Paycheck paycheck : paycheckRepository.findAllById(missing.subList(from, Math.min(from + BATCH_SIZE, missing.size())))) {
+                writeEntry(zip, payslipDocumentRepository.insertIfAbsent(toDocument(paycheck)));
+            }
+        }
+        if (!missing.isEmpty()) {
+            logger.info("Rendered {} missing payslips of run {} for its archive.", missing.size(), payrollRunId);
+        }
+        zip.finish();
+    }
+
+    private static void writeEntry(ZipOutputStream zip, PayslipDocument document) throws IOException {
+        zip.putNextEntry(new ZipEntry(document.getFileName()));
+        zip.write(document.getContent());
+        zip.closeEntry();
+    }
+
+    public void deleteByPayrollRunId(String payrollRunId) {
+        payslipDocumentRepository.deleteByPayrollRunId(payrollRunId);
+    }
+
+    private PayslipDocument toDocument(Paycheck paycheck) {
+        byte[] content = payslipRenderer.render(paycheck);
+        PayslipDocument document = new PayslipDocument();
+        document.setPaycheckId(paycheck.getId());
+        document.setPayrollRunId(paycheck.getPayrollRunId());
+        document.setEmployeeId(paycheck.getEmployeeId());
+        document.setFileName(fileName(paycheck));
+        document.setContent(content);
+        document.setContentHash(sha256(content));
+        document.setRenderedAt(LocalDateTime.now());
+        return document;
+    }
+
+    private static String fileName(Paycheck paycheck) {
+        String employee = paycheck.getEmployeeUsername() != null ? paycheck.getEmployeeUsername() : paycheck.getEmployeeId();
+        // The paycheck ID keeps names unique within a run archive
+        return "payslip-" + employee.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + paycheck.getPayPeriodStart()
+                + "-" + paycheck.getId() + ".pdf";
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
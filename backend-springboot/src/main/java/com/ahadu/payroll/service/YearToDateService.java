@@ -0,0 +1,112 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.model.YearToDate;
+import com.ahadu.payroll.repository.PaycheckRepository;
+import com.ahadu.payroll.repository.PayrollRunRepository;
+import com.ahadu.payroll.repository.YearToDateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Per-employee, per-year accumulators of PAID pay. Marking a run as paid adds its paychecks
+ * and deleting a paid run subtracts them again, so a year-to-date lookup is one read instead
+ * of a scan over the employee's paychecks.
+ *
+ * A paid run carries ytdApplied=false until all of its paychecks are recorded. Recording is
+ * idempotent per paycheck, so a run that failed part way is simply recorded again by
+ * {@link #resumePaidRuns}.
+ */
+@Service
+public class YearToDateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(YearToDateService.class);
+
+    // Paychecks applied per bulk write
+    private static final int BATCH_SIZE = 1000;
+
+    private final YearToDateRepository yearToDateRepository;
+    private final PaycheckRepository paycheckRepository;
+    private final PayrollRunRepository payrollRunRepository;
+
+    @Autowired
+    public YearToDateService(YearToDateRepository yearToDateRepository, PaycheckRepository paycheckRepository,
+                             PayrollRunRepository payrollRunRepository) {
+        this.yearToDateRepository = yearToDateRepository;
+        this.paycheckRepository = paycheckRepository;
+        this.payrollRunRepository = payrollRunRepository;
+    }
+
+    public YearToDate getYearToDate(String employeeId, int year) {
+        return yearToDateRepository.findById(YearToDate.idOf(employeeId, year))
+                .orElseGet(() -> empty(employeeId, year));
+    }
+
+    /**
+     * Adds the paychecks of a run that was marked as paid, then sets its ytdApplied marker.
+     * Paychecks that are already counted are skipped, so this can be repeated after a failure.
+     */
+    public void recordPaidRun(String payrollRunId) {
+        accumulateRun(payrollRunId, 1);
+        payrollRunRepository.updateIfStatus(payrollRunId, "PAID", null, new Update().set("ytdApplied", true));
+    }
+
+    /**
+     * Records the year-to-date totals of paid runs whose recording did not finish.
+     */
+    @Scheduled(fixedDelay = 10 * 60 * 1000)
+    public void resumePaidRuns() {
+        for (PayrollRun payrollRun : payrollRunRepository.findIdsOfPaidRunsWithoutYearToDate()) {
+            try {
+                recordPaidRun(payrollRun.getId());
+                logger.info("Recorded the year-to-date totals of paid run {}.", payrollRun.getId());
+            } catch (RuntimeException e) {
+                logger.error("Recording the year-to-date totals of paid run {} failed again: {}", payrollRun.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Subtracts the paychecks of a paid run before it is deleted.
+     */
+    public void reversePaidRun(String payrollRunId) {
+        accumulateRun(payrollRunId, -1);
+    }
+
+    private void accumulateRun(String payrollRunId, int sign) {
+        List<Paycheck> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Paycheck> paychecks = paycheckRepository.streamByPayrollRunId(payrollRunId)) {
+            for (Paycheck paycheck : (Iterable<Paycheck>) paychecks::iterator) {
+                batch.add(paycheck);
+                if (batch.size() == BATCH_SIZE) {
+                    yearToDateRepository.accumulate(batch, sign);
+                    batch.clear();
+                }
+            }
+        }
+        yearToDateRepository.accumulate(batch, sign);
+    }
+
+    private static YearToDate empty(String employeeId, int year) {
+        YearToDate yearToDate = new YearToDate();
+        yearToDate.setId(YearToDate.idOf(employeeId, year));
+        yearToDate.setEmployeeId(employeeId);
+        yearToDate.setYear(year);
+        yearToDate.setGrossPay(BigDecimal.ZERO);
+        yearToDate.setTaxDeduction(BigDecimal.ZERO);
+        yearToDate.setProvidentFundDeduction(BigDecimal.ZERO);
+        yearToDate.setTotalDeductions(BigDecimal.ZERO);
+        yearToDate.setNetPay(BigDecimal.ZERO);
+        return yearToDate;
+    }
+}
@@ -0,0 +1,73 @@
+package com.ahadu.payroll.service;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the fixed-point helpers round exactly like the BigDecimal expressions they replace.
+ */
+class MoneyTest {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Property
+    void ofRoundsLikeSetScaleHalfUp(@ForAll("amounts") BigDecimal amount) {
+        assertEquals(amount.setScale(2, RoundingMode.HALF_UP), Money.toBigDecimal(Money.of(amount)));
+    }
+
+    @Property
+    void percentOfMatchesBigDecimal(@ForAll("salaries") BigDecimal salary, @ForAll("percentages") BigDecimal percentage) {
+        BigDecimal expected = salary.multiply(percentage).divide(HUNDRED).setScale(2, RoundingMode.HALF_UP);
+
+        long actual = Money.percentOf(Money.of(salary), Money.rate(percentage));
+
+        assertEquals(expected, Money.toBigDecimal(actual));
+    }
+
+    @Property
+    void exactRejectsAmountsThatNeedRounding(@ForAll("amounts") BigDecimal amount) {
+        long minorUnits = Money.exact(amount);
+        if (amount.scale() > Money.SCALE) {
+            assertEquals(Money.UNREPRESENTABLE, minorUnits);
+        } else {
+            assertEquals(amount.setScale(2), Money.toBigDecimal(minorUnits));
+        }
+    }
+
+    @Example
+    void rateRejectsMoreThanSixDecimals() {
+        assertEquals(Money.UNREPRESENTABLE, Money.rate(new BigDecimal("12.1234567")));
+        assertEquals(12_123_456L, Money.rate(new BigDecimal("12.123456")));
+    }
+
+    @Example
+    void ofReportsAmountsBeyondLongRange() {
+        assertEquals(Money.UNREPRESENTABLE, Money.of(new BigDecimal("1E+20")));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> amounts() {
+        return Arbitraries.integers().between(0, 4).flatMap(scale ->
+                Arbitraries.bigDecimals().between(new BigDecimal("-10000000"), new BigDecimal("10000000")).ofScale(scale));
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> salaries() {
+        return Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("10000000")).ofScale(2);
+    }
+
+    @Provide
+    Arbitrary<BigDecimal> percentages() {
+        return Arbitraries.integers().between(0, Money.RATE_SCALE).flatMap(scale ->
+                Arbitraries.bigDecimals().between(BigDecimal.ZERO, HUNDRED).ofScale(scale));
+    }
+}
@@ -0,0 +1,117 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import com.ahadu.payroll.model.PaycheckEarning;
+import com.ahadu.payroll.model.SalaryComponent;
+import com.ahadu.payroll.model.User;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the fixed-point paycheck calculation gives exactly the same amounts, scale
+ * included, as the reference BigDecimal calculation.
+ */
+class PayrollCalculatorTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2024, 1, 31);
+
+    private final PayrollCalculator calculator = new PayrollCalculator();
+
+    @Property(tries = 2000)
+    void fixedPointMatchesBigDecimal(@ForAll("employees") User employee, @ForAll("components") List<SalaryComponent> components) {
+        Paycheck actual = calculator.calculatePaycheck(employee, components, PERIOD_START, PERIOD_END);
+
+        Paycheck expected = new Paycheck();
+        PayrollCalculator.calculateBigDecimal(employee, components, expected);
+
+        assertEquals(expected.getBaseSalary(), actual.getBaseSalary());
+        assertEquals(amounts(expected.getEarnings()), amounts(actual.getEarnings()));
+        assertEquals(expected.getGrossPay(), actual.getGrossPay());
+        assertEquals(expected.getCommissionAmount(), actual.getCommissionAmount());
+        assertEquals(expected.getTaxDeduction(), actual.getTaxDeduction());
+        assertEquals(expected.getProvidentFundDeduction(), actual.getProvidentFundDeduction());
+        assertEquals(expected.getTotalDeductions(), actual.getTotalDeductions());
+        assertEquals(expected.getNetPay(), actual.getNetPay());
+    }
+
+    @Property(tries = 200)
+    void batchMatchesSingleCalculations(@ForAll("employeeLists") List<User> employees,
+                                        @ForAll("components") List<SalaryComponent> components) {
+        List<Paycheck> paychecks = calculator.calculate(employees, components, PERIOD_START, PERIOD_END);
+
+        assertEquals(employees.size(), paychecks.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Paycheck single = calculator.calculatePaycheck(employees.get(i), components, PERIOD_START, PERIOD_END);
+            assertEquals(single.getNetPay(), paychecks.get(i).getNetPay());
+        }
+    }
+
+    private static List<BigDecimal> amounts(List<PaycheckEarning> earnings) {
+        return earnings.stream().map(PaycheckEarning::getAmount).collect(Collectors.toList());
+    }
+
+    @Provide
+    Arbitrary<User> employees() {
+        return Combinators.combine(salaries(), percentages(), percentages(), percentages())
+                .as((baseSalary, commission, tax, providentFund) -> {
+                    User employee = new User();
+                    employee.setId("employee");
+                    employee.setBaseSalary(baseSalary);
+                    employee.setCommissionPercentage(commission);
+                    employee.setTaxPercentage(tax);
+                    employee.setProvidentFundPercentage(providentFund);
+                    return employee;
+                });
+    }
+
+    @Provide
+    Arbitrary<List<User>> employeeLists() {
+        return employees().list().ofMaxSize(1200);
+    }
+
+    @Provide
+    Arbitrary<List<SalaryComponent>> components() {
+        Arbitrary<SalaryComponent> percentage = Combinators.combine(componentTypes(), percentages().filter(p -> p != null))
+                .as((type, rate) -> new SalaryComponent("component", type, rate, true));
+        Arbitrary<SalaryComponent> fixed = Combinators.combine(componentTypes(), fixedAmounts())
+                .as((type, amount) -> new SalaryComponent("component", type, amount, false));
+        return Arbitraries.oneOf(percentage, fixed).list().ofMaxSize(6);
+    }
+
+    // Monthly salaries up to 10 million, mostly with 2 decimals and sometimes finer
+    private Arbitrary<BigDecimal> salaries() {
+        return Arbitraries.frequencyOf(
+                        Tuple.of(9, Arbitraries.just(2)),
+                        Tuple.of(1, Arbitraries.integers().between(0, 4)))
+                .flatMap(scale -> Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("10000000")).ofScale(scale));
+    }
+
+    // Percentages from 0 to 100 with up to 8 decimals, so the BigDecimal fallback is exercised too
+    private Arbitrary<BigDecimal> percentages() {
+        return Arbitraries.integers().between(0, 8)
+                .flatMap(scale -> Arbitraries.bigDecimals().between(BigDecimal.ZERO, BigDecimal.valueOf(100)).ofScale(scale))
+                .injectNull(0.05);
+    }
+
+    private Arbitrary<BigDecimal> fixedAmounts() {
+        return Arbitraries.integers().between(0, 3)
+                .flatMap(scale -> Arbitraries.bigDecimals().between(BigDecimal.ZERO, new BigDecimal("100000")).ofScale(scale));
+    }
+
+    private Arbitrary<String> componentTypes() {
+        return Arbitraries.of("Earning", "Tax", "Deduction", "earning", "Other");
+    }
+}
@@ -0,0 +1,110 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.PayrollRun;
+import com.ahadu.payroll.payload.DetailedPaycheckDto;
+import com.ahadu.payroll.payload.PayrollIngestResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks that bad rows of a streamed upload are reported one by one, and that only a body that
+ * cannot be parsed further removes the partial run.
+ */
+class PayrollIngestServiceTest {
+
+    private static final LocalDate PERIOD_START = LocalDate.of(2024, 1, 1);
+    private static final LocalDate PERIOD_END = LocalDate.of(2024, 1, 31);
+
+    private final PayrollService payrollService = mock(PayrollService.class);
+    private final PayrollIngestService ingestService = new PayrollIngestService(payrollService, new ObjectMapper());
+    private final List<DetailedPaycheckDto> savedRows = new ArrayList<>();
+
+    @BeforeEach
+    void stubPayrollService() {
+        PayrollRun payrollRun = new PayrollRun();
+        payrollRun.setId("run");
+        when(payrollService.startDraftRun(any(), any(), anyString())).thenReturn(payrollRun);
+        when(payrollService.previewChunk(any(), anyList(), anyList())).thenAnswer(invocation -> {
+            // The batch list is reused after the call, so keep a copy of the rows
+            savedRows.addAll(invocation.getArgument(1));
+            return new PayrollRunTotals();
+        });
+        when(payrollService.completeDraftRun(any(), any())).thenReturn(payrollRun);
+    }
+
+    @Test
+    void nullAndNonObjectNdjsonRowsAreRejected() throws IOException {
+        String body = "{\"employeeId\":\"e1\",\"baseSalary\":100}\n"
+                + "null\n"
+                + "5\n"
+                + "[1]\n"
+                + "\n"
+                + "{\"employeeId\":\"e2\"}\n";
+
+        PayrollIngestResponse response = ingest(body, PayrollIngestService.NDJSON);
+
+        assertEquals(5, response.getRowsRead());
+        assertEquals(List.of("Row 2", "Row 3", "Row 4"), rejectedRows(response));
+        assertEquals(List.of("e1", "e2"), savedRows.stream().map(DetailedPaycheckDto::getEmployeeId).toList());
+        assertEquals(new BigDecimal("100"), savedRows.get(0).getBaseSalary());
+        verify(payrollService, never()).abandonDraftRun(anyString());
+    }
+
+    @Test
+    void malformedNdjsonRemovesThePartialRun() {
+        String body = "{\"employeeId\":\"e1\"}\n{\"employeeId\": oops}\n";
+
+        assertThrows(IllegalArgumentException.class, () -> ingest(body, PayrollIngestService.NDJSON));
+        verify(payrollService).abandonDraftRun("run");
+    }
+
+    @Test
+    void csvFieldsMayBeQuoted() throws IOException {
+        String body = "employeeId, baseSalary\n"
+                + "\"a,1\", 100\n"
+                + "b, abc\n"
+                + "\"c\n2\",5\n";
+
+        PayrollIngestResponse response = ingest(body, PayrollIngestService.CSV);
+
+        assertEquals(3, response.getRowsRead());
+        assertEquals(List.of("Row 2"), rejectedRows(response));
+        assertEquals(List.of("a,1", "c\n2"), savedRows.stream().map(DetailedPaycheckDto::getEmployeeId).toList());
+        verify(payrollService, never()).abandonDraftRun(anyString());
+    }
+
+    @Test
+    void csvWithoutHeaderIsRejectedBeforeARunIsCreated() {
+        assertThrows(IllegalArgumentException.class, () -> ingest("", PayrollIngestService.CSV));
+        verify(payrollService, never()).startDraftRun(any(), any(), anyString());
+    }
+
+    private static List<String> rejectedRows(PayrollIngestResponse response) {
+        return response.getErrors().stream().map(error -> error.substring(0, error.indexOf(':'))).toList();
+    }
+
+    private PayrollIngestResponse ingest(String body, String format) throws IOException {
+        InputStream stream = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        return ingestService.ingestPreview(stream, format, PERIOD_START, PERIOD_END, "admin");
+    }
+}
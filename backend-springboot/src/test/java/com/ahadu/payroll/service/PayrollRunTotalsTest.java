@@ -0,0 +1,96 @@
+package com.ahadu.payroll.service;
+
+import com.ahadu.payroll.model.Paycheck;
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.Tuple;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that run totals summed in minor units match a plain BigDecimal reduction, including
+ * amounts with more than 2 decimals and sums that overflow a long.
+ */
+class PayrollRunTotalsTest {
+
+    @Property
+    void totalsMatchBigDecimalSum(@ForAll("paychecks") List<Paycheck> paychecks) {
+        PayrollRunTotals totals = PayrollRunTotals.of(paychecks);
+
+        assertEquals(sum(paychecks, Paycheck::getGrossPay), totals.getGrossPay());
+        assertEquals(sum(paychecks, Paycheck::getTotalDeductions), totals.getDeductions());
+        assertEquals(sum(paychecks, Paycheck::getNetPay), totals.getNetPay());
+        assertEquals(paychecks.size(), totals.getPaycheckCount());
+    }
+
+    @Property
+    void chunkedTotalsMatchSingleReduction(@ForAll("paychecks") List<Paycheck> paychecks) {
+        PayrollRunTotals chunked = new PayrollRunTotals();
+        for (int from = 0; from < paychecks.size(); from += 7) {
+            chunked.addAll(PayrollRunTotals.of(paychecks.subList(from, Math.min(from + 7, paychecks.size()))));
+        }
+
+        PayrollRunTotals single = PayrollRunTotals.of(paychecks);
+        assertEquals(single.getGrossPay(), chunked.getGrossPay());
+        assertEquals(single.getDeductions(), chunked.getDeductions());
+        assertEquals(single.getNetPay(), chunked.getNetPay());
+        assertEquals(single.getPaycheckCount(), chunked.getPaycheckCount());
+    }
+
+    @Example
+    void overflowFallsBackToBigDecimal() {
+        BigDecimal huge = Money.toBigDecimal(Long.MAX_VALUE - 1);
+        List<Paycheck> paychecks = List.of(paycheck(huge, BigDecimal.ZERO, huge), paycheck(huge, BigDecimal.ZERO, huge));
+
+        PayrollRunTotals totals = PayrollRunTotals.of(paychecks);
+
+        assertEquals(huge.add(huge), totals.getGrossPay());
+        assertEquals(huge.add(huge), totals.getNetPay());
+        assertEquals(2, totals.getPaycheckCount());
+    }
+
+    @Example
+    void amountsBeyondLongRangeAreNotLost() {
+        BigDecimal beyondLong = new BigDecimal("1E+20").setScale(2);
+        BigDecimal normal = new BigDecimal("1500.25");
+
+        PayrollRunTotals totals = PayrollRunTotals.of(List.of(paycheck(normal, normal, BigDecimal.ZERO),
+                paycheck(beyondLong, BigDecimal.ZERO, beyondLong), paycheck(normal, normal, BigDecimal.ZERO)));
+
+        assertEquals(beyondLong.add(normal).add(normal), totals.getGrossPay());
+        assertEquals(beyondLong, totals.getNetPay());
+    }
+
+    @Provide
+    Arbitrary<List<Paycheck>> paychecks() {
+        Arbitrary<BigDecimal> amounts = Arbitraries.frequencyOf(
+                        Tuple.of(20, Arbitraries.just(2)),
+                        Tuple.of(1, Arbitraries.integers().between(0, 4)))
+                .flatMap(scale -> Arbitraries.bigDecimals().between(new BigDecimal("-1000000"), new BigDecimal("10000000")).ofScale(scale));
+        return Combinators.combine(amounts, amounts, amounts)
+                .as(PayrollRunTotalsTest::paycheck)
+                .list().ofMaxSize(200);
+    }
+
+    private static Paycheck paycheck(BigDecimal grossPay, BigDecimal totalDeductions, BigDecimal netPay) {
+        Paycheck paycheck = new Paycheck();
+        paycheck.setGrossPay(grossPay);
+        paycheck.setTotalDeductions(totalDeductions);
+        paycheck.setNetPay(netPay);
+        return paycheck;
+    }
+
+    private static BigDecimal sum(List<Paycheck> paychecks, Function<Paycheck, BigDecimal> amount) {
+        return paychecks.stream().map(amount).reduce(BigDecimal.ZERO, BigDecimal::add).setScale(2, RoundingMode.HALF_UP);
+    }
+}
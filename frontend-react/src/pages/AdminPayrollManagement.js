@@ -56,7 +56,8 @@ function AdminPayrollManagement() {
     const handlePreviewPayroll = async (start, end) => {
         setProcessing(true);
         try {
-            const response = await fetch(`${API_BASE_URL}/api/payroll/preview?payPeriodStart=${start}&payPeriodEnd=${end}`, {
+            // Large previews run as a background job; poll it instead of holding the request open.
+            const response = await fetch(`${API_BASE_URL}/api/payroll/preview?payPeriodStart=${start}&payPeriodEnd=${end}&async=true`, {
                 method: 'POST',
                 headers: authHeaders,
                 body: JSON.stringify(detailedPayrolls),
@@ -67,9 +68,29 @@ function AdminPayrollManagement() {
                 throw new Error(errorData.message || `Payroll preview failed with status: ${response.status}`);
             }
 
-            const data = await response.json();
-            setDraftPayroll(data);
-            toast.info('Payroll preview generated successfully!');
+            let job = await response.json();
+            while (job.status === 'QUEUED' || job.status === 'RUNNING') {
+                await new Promise(resolve => setTimeout(resolve, 1000));
+                const jobResponse = await fetch(`${API_BASE_URL}/api/payroll/jobs/${job.id}`, { headers: authHeaders });
+                if (!jobResponse.ok) throw new Error(`Failed to check payroll job: ${jobResponse.status}`);
+                job = await jobResponse.json();
+            }
+            if (job.status === 'FAILED') {
+                throw new Error(job.errors.join(' ') || 'Payroll preview failed.');
+            }
+
+            const runResponse = await fetch(`${API_BASE_URL}/api/payroll/run/${job.payrollRunId}`, { headers: authHeaders });
+            if (!runResponse.ok) throw new Error(`HTTP error! status: ${runResponse.status}`);
+            const run = await runResponse.json();
+            const paychecksResponse = await fetch(`${API_BASE_URL}/api/payroll/run/${job.payrollRunId}/paychecks?page=0&size=500`, { headers: authHeaders });
+            if (!paychecksResponse.ok) throw new Error(`HTTP error! status: ${paychecksResponse.status}`);
+            const paychecksPage = await paychecksResponse.json();
+            setDraftPayroll({ ...run, paychecks: paychecksPage.content });
+            if (job.errors.length > 0) {
+                toast.warn(`Payroll preview generated with ${job.errors.length} skipped row(s): ${job.errors.join(' ')}`);
+            } else {
+                toast.info('Payroll preview generated successfully!');
+            }
         } catch (error) {
             console.error("Error previewing payroll:", error);
             toast.error(error.message || "An error occurred during payroll preview.");
@@ -81,10 +102,11 @@ function AdminPayrollManagement() {
     const fetchPayrollRuns = useCallback(async () => {
         try {
             setLoading(true);
-            const response = await fetch(`${API_BASE_URL}/api/payroll/runs`, { headers: authHeaders });
+            // Run summaries come back paged, newest pay period first
+            const response = await fetch(`${API_BASE_URL}/api/payroll/runs?page=0&size=100`, { headers: authHeaders });
             if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
             const data = await response.json();
-            const sortedData = data.sort((a, b) => new Date(b.payPeriodEnd) - new Date(a.payPeriodEnd));
+            const sortedData = data.content;
             setPayrollRuns(sortedData);
             if (sortedData.length > 0) {
                 setLastProcessed(format(new Date(sortedData[0].processedAt), 'PPP HH:mm'));
@@ -184,7 +206,11 @@ function AdminPayrollManagement() {
             const response = await fetch(`${API_BASE_URL}/api/payroll/run/${runId}`, { headers: authHeaders });
             if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
             const data = await response.json();
-            setSelectedRun(data);
+            // Run documents are summaries; paychecks are loaded separately in pages.
+            const paychecksResponse = await fetch(`${API_BASE_URL}/api/payroll/run/${runId}/paychecks?page=0&size=500`, { headers: authHeaders });
+            if (!paychecksResponse.ok) throw new Error(`HTTP error! status: ${paychecksResponse.status}`);
+            const paychecksPage = await paychecksResponse.json();
+            setSelectedRun({ ...data, paychecks: paychecksPage.content });
             setViewDetails(true);
         } catch (error) {
             console.error("Failed to fetch payroll run details:", error);
@@ -192,6 +218,27 @@ function AdminPayrollManagement() {
         }
     };
 
+    // Downloads every payslip of a finalized run as one ZIP archive.
+    const handleDownloadPayslips = async (runId) => {
+        try {
+            const response = await fetch(`${API_BASE_URL}/api/payroll/run/${runId}/payslips.zip`, { headers: authHeaders });
+            if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
+            const disposition = response.headers.get('Content-Disposition') || '';
+            const match = disposition.match(/filename="?([^"]+)"?/);
+            const url = window.URL.createObjectURL(await response.blob());
+            const link = document.createElement('a');
+            link.href = url;
+            link.download = match ? match[1] : `payslips-${runId}.zip`;
+            document.body.appendChild(link);
+            link.click();
+            link.remove();
+            window.URL.revokeObjectURL(url);
+        } catch (error) {
+            console.error("Failed to download payslips:", error);
+            toast.error("Failed to download payslips.");
+        }
+    };
+
     const handleDeletePayrollRun = async (runId) => {
         const confirmDelete = window.confirm("Are you sure you want to delete this payroll run? This cannot be undone.");
         if (!confirmDelete) return;
@@ -481,6 +528,14 @@ function AdminPayrollManagement() {
                                         >
                                             View Details
                                         </button>
+                                        {(run.status === 'APPROVED' || run.status === 'PAID') && (
+                                            <button
+                                                onClick={() => handleDownloadPayslips(run.id)}
+                                                className="btn bg-gray-600 hover:bg-gray-700 text-white text-xs font-bold py-1 px-3 rounded-md"
+                                            >
+                                                Payslips (ZIP)
+                                            </button>
+                                        )}
                                         {run.status === 'APPROVED' && (
                                             <>
                                                 <button
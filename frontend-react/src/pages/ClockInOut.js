@@ -125,7 +125,6 @@ function ClockInOut() {
 
     const now = new Date();
     const payload = {
-      ...currentAttendance,
       clockOutTime: now.toTimeString().slice(0, 8),
       remarks: remarks,
     };
@@ -137,7 +136,7 @@ function ClockInOut() {
 
     try {
       // Use API_BASE_URL instead of hardcoded localhost
-      const response = await fetch(`${API_BASE_URL}/api/attendance/${currentAttendance.id}`, { // <--- MODIFIED
+      const response = await fetch(`${API_BASE_URL}/api/attendance/${currentAttendance.id}/clock-out`, {
         method: 'PUT',
         headers: authHeaders,
         body: JSON.stringify(payload)
@@ -7,21 +7,30 @@ import { format } from 'date-fns'; // Import format for date formatting
  * Allows employees to view their payroll details and payslips.
  * It fetches payslip records from the backend API and displays them in a table.
  */
+const PAGE_SIZE = 12; // Payslips per page
+
 function PayrollDetails() {
   const [payslips, setPayslips] = useState([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null); // Cursor of the next page, null on the last page
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Define the API_BASE_URL using the environment variable
   const API_BASE_URL = process.env.REACT_APP_API_BASE_URL;
   const token = localStorage.getItem('token');
 
   /**
-   * Fetches the current employee's payslips from the backend API.
+   * Fetches one page of the current employee's payslips from the backend API, newest first.
+   * Without a cursor the first page replaces the list; with one, the page is appended.
    * Memoized with useCallback to prevent unnecessary re-creations.
    */
-  const fetchMyPayslips = useCallback(async () => {
-    setLoading(true);
+  const fetchMyPayslips = useCallback(async (cursor = null) => {
+    if (cursor) {
+      setLoadingMore(true);
+    } else {
+      setLoading(true);
+    }
     setError(null);
     try {
       const authHeaders = {
@@ -29,23 +38,28 @@ function PayrollDetails() {
         'Authorization': `Bearer ${token}`
       };
 
+      const params = new URLSearchParams({ size: PAGE_SIZE });
+      if (cursor) {
+        params.append('cursor', cursor);
+      }
       // Use API_BASE_URL instead of hardcoded localhost
-      const response = await fetch(`${API_BASE_URL}/api/payroll/my-payslips`, {
+      const response = await fetch(`${API_BASE_URL}/api/payroll/my-payslips?${params}`, {
         headers: authHeaders
       });
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`);
       }
       const data = await response.json();
-      // Sort payslips by end date in descending order to show most recent first
-      const sortedPayslips = data.sort((a, b) => new Date(b.payPeriodEnd) - new Date(a.payPeriodEnd));
-      setPayslips(sortedPayslips);
+      // The backend already returns payslips ordered by pay period, most recent first
+      setPayslips(prev => (cursor ? [...prev, ...data.payslips] : data.payslips));
+      setNextCursor(data.nextCursor);
     } catch (err) {
       console.error("Failed to fetch payslips:", err);
       setError("Failed to load your payslips. Please try again.");
       toast.error("Failed to load your payslips.");
     } finally {
       setLoading(false);
+      setLoadingMore(false);
     }
   }, [API_BASE_URL, token]); // Add API_BASE_URL to dependencies
 
@@ -55,15 +69,32 @@ function PayrollDetails() {
   }, [fetchMyPayslips]);
 
   /**
-   * Handles the download action for a specific payslip.
-   * In a real application, this would trigger an API call to download the payslip file
-   * based on its ID. For now, it's a placeholder.
+   * Downloads the PDF of a payslip. The request needs the bearer token, so the file is
+   * fetched as a blob and saved through a temporary link instead of opening the URL.
    * @param {string} payslipId - The ID of the payslip to download.
    */
-  const handleDownloadPayslip = (payslipId) => {
-    toast.info(`Simulating download for payslip ID: ${payslipId}`);
-    // Example: Triggering a backend endpoint for download
-    // window.open(`${API_BASE_URL}/api/payroll/payslips/${payslipId}/download`, '_blank');
+  const handleDownloadPayslip = async (payslipId) => {
+    try {
+      const response = await fetch(`${API_BASE_URL}/api/payroll/payslips/${payslipId}/download`, {
+        headers: { 'Authorization': `Bearer ${token}` }
+      });
+      if (!response.ok) {
+        throw new Error(`HTTP error! status: ${response.status}`);
+      }
+      const disposition = response.headers.get('Content-Disposition') || '';
+      const match = disposition.match(/filename="?([^"]+)"?/);
+      const url = window.URL.createObjectURL(await response.blob());
+      const link = document.createElement('a');
+      link.href = url;
+      link.download = match ? match[1] : `payslip-${payslipId}.pdf`;
+      document.body.appendChild(link);
+      link.click();
+      link.remove();
+      window.URL.revokeObjectURL(url);
+    } catch (err) {
+      console.error("Failed to download payslip:", err);
+      toast.error("Failed to download payslip.");
+    }
   };
 
   if (loading) {
@@ -131,6 +162,17 @@ function PayrollDetails() {
               ))}
             </tbody>
           </table>
+          {nextCursor && (
+            <div className="text-center mt-4">
+              <button
+                onClick={() => fetchMyPayslips(nextCursor)}
+                disabled={loadingMore}
+                className="btn bg-gray-600 hover:bg-gray-700 text-white text-sm font-bold py-2 px-4 rounded-md"
+              >
+                {loadingMore ? 'Loading...' : 'Load More'}
+              </button>
+            </div>
+          )}
         </div>
       )}
     </div>
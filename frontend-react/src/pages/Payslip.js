@@ -34,12 +34,16 @@ function PaySlip() {
         'Authorization': `Bearer ${token}`
       };
 
-      // Assuming your backend has an endpoint to get the latest payslip for the authenticated user.
-      // If not, you might need to adjust this endpoint (e.g., fetching all and picking the latest)
-      const response = await fetch(`${API_BASE_URL}/api/payroll/my-payslips/latest`, { // Adjust endpoint as needed
+      // Returns the latest approved or paid payslip of the authenticated user
+      const response = await fetch(`${API_BASE_URL}/api/payroll/my-payslips/latest`, {
         headers: authHeaders
       });
 
+      // 404 means no payslip has been approved for this user yet
+      if (response.status === 404) {
+        setPayslip(null);
+        return;
+      }
       if (!response.ok) {
         throw new Error(`HTTP error! status: ${response.status}`);
       }